@@ -4,6 +4,11 @@ import com.primeleague.shop.commands.ShopCommand;
 import com.primeleague.shop.gui.CategoryGUI;
 import com.primeleague.shop.gui.ConfirmationGUI;
 import com.primeleague.shop.gui.ShopGUI;
+import com.primeleague.shop.guards.CombatGuard;
+import com.primeleague.shop.guards.CooldownGuard;
+import com.primeleague.shop.guards.GuardChain;
+import com.primeleague.shop.guards.PermissionGuard;
+import com.primeleague.shop.guards.RateLimitGuard;
 import com.primeleague.shop.listeners.ShopInventoryListener;
 import com.primeleague.shop.listeners.ChatListener;
 import com.primeleague.shop.services.EconomyService;
@@ -16,15 +21,19 @@ import com.primeleague.shop.ranking.RankingManager;
 import com.primeleague.shop.services.FeedbackManager;
 import com.primeleague.shop.database.DatabaseManager;
 import com.primeleague.shop.utils.ShopConstants;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 import com.primeleague.shop.combat.CombatManager;
+import com.primeleague.shop.economy.VaultEconomyBackend;
 import com.primeleague.shop.listeners.PlayerListener;
 import com.primeleague.shop.listeners.CombatListener;
+import com.primeleague.shop.listeners.SessionListener;
+import com.primeleague.shop.session.SessionManager;
 import com.primeleague.shop.storage.TransactionHistory;
 import com.primeleague.shop.utils.LogManager;
-import net.milkbowl.vault.economy.Economy;
-import org.bukkit.plugin.RegisteredServiceProvider;
+import com.primeleague.shop.utils.MaintenanceScheduler;
+import com.primeleague.shop.utils.RateLimiter;
 import com.primeleague.shop.services.FeedbackService;
 import com.primeleague.shop.services.FavoriteService;
 import com.primeleague.shop.tutorial.ShopTutorial;
@@ -50,7 +59,10 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
   private CombatManager combatManager;
   private TransactionHistory transactionHistory;
   private LogManager logManager;
-  private Economy economy;
+  private RateLimiter rateLimiter;
+  private GuardChain guardChain;
+  private MaintenanceScheduler maintenanceScheduler;
+  private SessionManager sessionManager;
 
   // GUIs compartilhadas
   private ShopGUI shopGUI;
@@ -77,28 +89,48 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
     this.configLoader = new ShopConfigLoader(this);
     this.configLoader.loadAll();
 
-    // Setup economia
-    if (!setupEconomy()) {
+    // Setup economia; a economia em memória dispensa o Vault
+    boolean memoryEconomy = "memory".equalsIgnoreCase(getConfig().getString("settings.economy.backend", "vault"));
+    if (!memoryEconomy && !setupEconomy()) {
       getLogger().severe("Vault não encontrado! Desabilitando plugin...");
       getServer().getPluginManager().disablePlugin(this);
       return;
     }
 
+    // Inicializa o pool de conexões antes dos serviços que o usam
+    this.databaseManager = new DatabaseManager(this);
+
+    // Estado por jogador online, usado pelos guardas, pelo combate e pelas GUIs
+    this.sessionManager = new SessionManager();
+    for (Player player : getServer().getOnlinePlayers()) {
+      sessionManager.open(player);
+    }
+
     // Inicializa serviços
+    this.rateLimiter = new RateLimiter(getConfig().getConfigurationSection("settings.transaction"));
+
+    // Verificações feitas antes de qualquer ação da loja, das mais baratas às que consomem estado
+    this.guardChain = new GuardChain(this)
+        .add(new CombatGuard(this))
+        .add(new PermissionGuard(this))
+        .add(new RateLimitGuard(this));
+    CooldownGuard cooldownGuard = new CooldownGuard(this);
+    if (cooldownGuard.isEnabled()) {
+      guardChain.add(cooldownGuard);
+    }
+    guardChain.start();
     this.economyService = new EconomyService(this);
-    this.shopManager = new ShopManager(this, economy);
+    // Antes do ShopManager, que liga os itens do catálogo aos preços dinâmicos
+    this.pricingService = new DynamicPricingService(this);
+    this.shopManager = new ShopManager(this);
     this.chatInputManager = new ChatInputManager();
     this.cartManager = new CartManager(this);
     this.transactionHistory = new TransactionHistory(this);
-    this.pricingService = new DynamicPricingService(this);
     this.preferencesManager = new PlayerPreferencesManager(this);
     this.historyManager = new TransactionHistoryManager(this);
     this.feedbackManager = new FeedbackManager(this);
     this.logManager = new LogManager(this);
 
-    // Carrega dados
-    shopManager.reloadCategories();
-
     // Inicializa GUIs primeiro
     this.shopGUI = new ShopGUI(this);
     this.categoryGUI = new CategoryGUI(this);
@@ -107,11 +139,19 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
     // Registra eventos depois das GUIs
     getServer().getPluginManager().registerEvents(new ShopInventoryListener(this), this);
     getServer().getPluginManager().registerEvents(new ChatListener(this), this);
+    getServer().getPluginManager().registerEvents(new SessionListener(this), this);
+
+    // Bloqueio da loja durante combate
+    if (getConfig().getBoolean("combat.enabled", true)) {
+      this.combatManager = new CombatManager(this);
+      combatManager.start();
+      getServer().getPluginManager().registerEvents(new CombatListener(this), this);
+    }
 
     // Registra comandos
     getCommand("shop").setExecutor(new ShopCommand(this));
 
-    transactionHistory.initializeDatabase();
+    startMaintenance();
 
     // Inicializa o RankingManager
     rankingManager = new RankingManager(this);
@@ -130,9 +170,58 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
       transactionHistory.close();
     }
 
+    if (economyService != null) {
+      economyService.shutdown();
+    }
+
+    if (combatManager != null) {
+      combatManager.shutdown();
+    }
+
+    if (guardChain != null) {
+      guardChain.shutdown();
+    }
+
+    if (maintenanceScheduler != null) {
+      maintenanceScheduler.shutdown();
+    }
+
+    if (sessionManager != null) {
+      sessionManager.closeAll();
+    }
+
+    // Salva o estado dos preços dinâmicos
+    if (pricingService != null) {
+      pricingService.shutdown();
+    }
+
+    // Fecha o pool só depois que as gravações pendentes foram concluídas
+    if (databaseManager != null) {
+      databaseManager.close();
+    }
+
     getLogger().info(ShopConstants.LOG_PLUGIN_DISABLED);
   }
 
+  /**
+   * Registra as limpezas periódicas em um único agendador
+   */
+  private void startMaintenance() {
+    this.maintenanceScheduler = new MaintenanceScheduler(this);
+
+    // Estado de jogadores online fica na sessão e sai com ela; aqui só o que sobrevive à saída
+    maintenanceScheduler.register("rate-limiter", rateLimiter, 6000L); // A cada 5 minutos
+    maintenanceScheduler.register("guards", guardChain, 6000L);
+    maintenanceScheduler.register("balance-cache", economyService, 6000L); // A cada 5 minutos
+    maintenanceScheduler.register("market-states", pricingService, 36000L); // A cada 30 minutos
+    maintenanceScheduler.register("trade-volume", pricingService.getVolumeTracker(), 6000L); // A cada 5 minutos
+    // Só enfileira o DELETE na thread de escrita do histórico
+    maintenanceScheduler.register("transaction-history", transactionHistory, 72000L); // A cada hora
+
+    // Preferências não entram: a limpeza delas descarta favoritos ainda não salvos
+    maintenanceScheduler.start();
+  }
+
   /**
    * Obtém uma conexão do pool de conexões
    */
@@ -153,11 +242,21 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
   /**
    * Recarrega todas as configurações do plugin
    *
+   * O catálogo da loja é recarregado em segundo plano e trocado quando
+   * estiver pronto.
+   *
    * @return true se o reload foi bem sucedido
    */
   public boolean reload() {
     reloadConfig();
-    return configLoader.loadAll();
+    boolean success = configLoader.loadAll();
+    if (success && shopManager != null) {
+      shopManager.reloadCategoriesAsync(null);
+    }
+    if (economyService != null) {
+      economyService.invalidateAll();
+    }
+    return success;
   }
 
   // Getters para os serviços
@@ -197,6 +296,22 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
     return combatManager;
   }
 
+  public RateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  public GuardChain getGuardChain() {
+    return guardChain;
+  }
+
+  public MaintenanceScheduler getMaintenanceScheduler() {
+    return maintenanceScheduler;
+  }
+
+  public SessionManager getSessionManager() {
+    return sessionManager;
+  }
+
   public TransactionHistory getTransactionHistory() {
     return transactionHistory;
   }
@@ -250,16 +365,7 @@ public class PrimeLeagueShopPlugin extends JavaPlugin {
     if (getServer().getPluginManager().getPlugin("Vault") == null) {
       return false;
     }
-    RegisteredServiceProvider<Economy> rsp = getServer().getServicesManager().getRegistration(Economy.class);
-    if (rsp == null) {
-      return false;
-    }
-    economy = rsp.getProvider();
-    return economy != null;
-  }
-
-  public Economy getEconomy() {
-    return economy;
+    return VaultEconomyBackend.lookup(getServer()) != null;
   }
 
   public FeedbackService getFeedbackService() {
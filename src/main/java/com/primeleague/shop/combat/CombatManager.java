@@ -1,60 +1,200 @@
 package com.primeleague.shop.combat;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.session.PlayerSession;
+import com.primeleague.shop.utils.TextUtils;
 import org.bukkit.entity.Player;
-import java.util.Map;
-import java.util.Collections;
-import java.util.HashMap;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Marcações de combate com expiração por tick
+ *
+ * As marcações ficam em uma roda de tempo (timing wheel): a cada tick só o
+ * balde do tick atual é processado, então expirar custa O(1) por marcação,
+ * sem varrer o mapa. Uma nova marcação de quem já está em combate só
+ * adia a expiração, sem mexer na roda e sem enviar mensagem.
+ *
+ * As marcações ficam em um mapa por UUID, fora da sessão, para que sair e
+ * voltar não limpe o combate; só a roda as remove. {@link #isInCombat} é
+ * uma consulta ao mapa mais uma leitura volátil, sem locks, de qualquer
+ * thread. Marcar e expirar acontecem na thread principal.
+ */
 public class CombatManager {
+
+  // Número de baldes da roda; potência de 2
+  private static final int WHEEL_SIZE = 512;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
   private final PrimeLeagueShopPlugin plugin;
-  private final Map<String, Long> combatTags;
-  private final long combatDuration;
+  private final ConcurrentMap<UUID, CombatTag> tags;
+  private final List<List<CombatTag>> wheel;
+  private final long durationTicks;
+  private final boolean blockCommands;
+  private final boolean blockGui;
+  private volatile long currentTick;
+  private BukkitTask tickTask;
+
+  /**
+   * Marcação de um jogador; expiresAt só avança
+   */
+  private static final class CombatTag {
+    private final UUID uniqueId;
+    private volatile long expiresAt;
+
+    CombatTag(UUID uniqueId, long expiresAt) {
+      this.uniqueId = uniqueId;
+      this.expiresAt = expiresAt;
+    }
+  }
 
   public CombatManager(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.combatTags = Collections.synchronizedMap(new HashMap<String, Long>());
-    this.combatDuration = plugin.getConfig().getLong("combat.duration", 10) * 1000; // Segundos para ms
+    this.durationTicks = Math.max(1L, plugin.getConfig().getLong("combat.duration", 10) * 20L); // Segundos para ticks
+    this.blockCommands = plugin.getConfig().getBoolean("combat.block-commands", true);
+    this.blockGui = plugin.getConfig().getBoolean("combat.block-gui", true);
+    this.tags = new ConcurrentHashMap<>();
+    this.wheel = new ArrayList<>(WHEEL_SIZE);
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      wheel.add(new ArrayList<CombatTag>());
+    }
+  }
+
+  /**
+   * Inicia o avanço da roda, um balde por tick
+   */
+  public void start() {
+    tickTask = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+      @Override
+      public void run() {
+        advance();
+      }
+    }, 1L, 1L);
   }
 
+  public void shutdown() {
+    if (tickTask != null) {
+      tickTask.cancel();
+      tickTask = null;
+    }
+    for (List<CombatTag> bucket : wheel) {
+      bucket.clear();
+    }
+    tags.clear();
+  }
+
+  /**
+   * Marca o jogador em combate
+   *
+   * A mensagem de entrada só é enviada quando o jogador não estava em
+   * combate, então uma luta longa gera uma única mensagem.
+   */
   public void tagPlayer(Player player) {
-    String playerName = player.getName();
-    combatTags.put(playerName, System.currentTimeMillis());
-    player.sendMessage("§cVocê entrou em combate! Não poderá usar a loja por " +
-        (combatDuration / 1000) + " segundos.");
+    long expiresAt = currentTick + durationTicks;
+    CombatTag tag = tags.get(player.getUniqueId());
+
+    if (tag != null && tag.expiresAt > currentTick) {
+      tag.expiresAt = expiresAt;
+      return;
+    }
+
+    tag = new CombatTag(player.getUniqueId(), expiresAt);
+    tags.put(player.getUniqueId(), tag);
+    schedule(tag);
+
+    player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getMessage("combat_enter",
+        "&cVocê entrou em combate! Não poderá usar a loja por {time} segundos.")
+        .replace("{time}", String.valueOf(durationTicks / 20))));
   }
 
   public boolean isInCombat(Player player) {
-    String playerName = player.getName();
-    Long tagTime = combatTags.get(playerName);
-    if (tagTime == null)
-      return false;
+    return isInCombat(player.getUniqueId());
+  }
 
-    if (System.currentTimeMillis() - tagTime > combatDuration) {
-      combatTags.remove(playerName);
-      return false;
-    }
-    return true;
+  public boolean isInCombat(PlayerSession session) {
+    return isInCombat(session.getUniqueId());
   }
 
-  public void cleanup() {
-    long now = System.currentTimeMillis();
-    synchronized (combatTags) {
-      combatTags.entrySet().removeIf(entry -> now - entry.getValue() > combatDuration);
-    }
+  private boolean isInCombat(UUID uniqueId) {
+    CombatTag tag = tags.get(uniqueId);
+    return tag != null && tag.expiresAt > currentTick;
   }
 
-  public void removeTag(Player player) {
-    combatTags.remove(player.getName());
+  /**
+   * Se o jogador deve ser impedido de usar os comandos da loja agora
+   */
+  public boolean isCommandBlocked(PlayerSession session) {
+    return blockCommands && isInCombat(session);
   }
 
-  public long getRemainingTime(Player player) {
-    String playerName = player.getName();
-    Long tagTime = combatTags.get(playerName);
-    if (tagTime == null)
+  /**
+   * Se o jogador deve ser impedido de usar as GUIs da loja agora
+   */
+  public boolean isGuiBlocked(Player player) {
+    return blockGui && isInCombat(player);
+  }
+
+  public boolean isGuiBlocked(PlayerSession session) {
+    return blockGui && isInCombat(session);
+  }
+
+  /**
+   * Aviso de que a loja está bloqueada pelo combate, com o tempo restante
+   */
+  public String getBlockedMessage(PlayerSession session) {
+    long seconds = (getRemainingTime(session) + 999) / 1000;
+    return TextUtils.colorize(plugin.getConfigLoader().getMessage("combat_blocked",
+        "&cVocê não pode usar a loja durante o combate! Aguarde {time} segundos.")
+        .replace("{time}", String.valueOf(seconds)));
+  }
+
+  public long getRemainingTime(PlayerSession session) {
+    CombatTag tag = tags.get(session.getUniqueId());
+    if (tag == null) {
       return 0;
+    }
+    return Math.max(0, tag.expiresAt - currentTick) * 50L; // Ticks para ms
+  }
+
+  private void schedule(CombatTag tag) {
+    wheel.get((int) (tag.expiresAt & WHEEL_MASK)).add(tag);
+  }
+
+  /**
+   * Avança um tick e expira as marcações do balde atual
+   */
+  private void advance() {
+    long tick = ++currentTick;
+    List<CombatTag> bucket = wheel.get((int) (tick & WHEEL_MASK));
+    if (bucket.isEmpty()) {
+      return;
+    }
 
-    long remaining = combatDuration - (System.currentTimeMillis() - tagTime);
-    return Math.max(0, remaining);
+    List<CombatTag> due = new ArrayList<>(bucket);
+    bucket.clear();
+
+    for (CombatTag tag : due) {
+      if (tags.get(tag.uniqueId) != tag) {
+        continue; // Marcação substituída
+      }
+
+      if (tag.expiresAt > tick) {
+        // Marcação renovada depois de agendada: reagenda para a nova expiração
+        schedule(tag);
+        continue;
+      }
+
+      tags.remove(tag.uniqueId, tag);
+      PlayerSession session = plugin.getSessionManager().getIfPresent(tag.uniqueId);
+      if (session != null && session.isOpen()) {
+        session.getPlayer().sendMessage(TextUtils.colorize(plugin.getConfigLoader().getMessage("combat_expired",
+            "&aVocê não está mais em combate.")));
+      }
+    }
   }
 }
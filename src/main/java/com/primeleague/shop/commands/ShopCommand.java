@@ -1,6 +1,7 @@
 package com.primeleague.shop.commands;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopAction;
 import com.primeleague.shop.commands.subcommands.*;
 import com.primeleague.shop.models.Transaction;
 import com.primeleague.shop.models.Transaction.TransactionType;
@@ -57,6 +58,10 @@ public class ShopCommand implements CommandExecutor {
 
     Player player = (Player) sender;
 
+    if (!plugin.getGuardChain().allow(player, ShopAction.COMMAND)) {
+      return true;
+    }
+
     if (args.length == 0) {
       openMainShop(player);
       return true;
@@ -71,7 +71,7 @@ public class BuySubCommand implements SubCommand {
         material = Material.getMaterial(materialId);
       }
       if (material != null) {
-        item = plugin.getShopManager().getItemByMaterialAndData(material.name(), (byte) 0);
+        item = plugin.getShopManager().getItemByMaterial(material, (byte) 0);
       }
     } catch (NumberFormatException e) {
       item = plugin.getShopManager().findItemByName(itemName);
@@ -96,7 +96,7 @@ public class BuySubCommand implements SubCommand {
     // Mostra uma mensagem de confirmação antes de abrir a GUI
     player.sendMessage(TextUtils.colorize("&aAbrindo confirmação de compra para &f" +
         item.getName() + " &a(Preço: &f" +
-        String.format("%.2f", item.getBuyPrice()) +
+        String.format("%.2f", plugin.getShopManager().getUnitPrice(item, true)) +
         plugin.getConfigLoader().getCurrencySymbol() + "&a)"));
 
     plugin.getConfirmationGUI().openBuyConfirmation(player, item, true);
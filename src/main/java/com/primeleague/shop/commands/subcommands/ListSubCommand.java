@@ -4,6 +4,7 @@ import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.commands.ShopCommand.SubCommand;
 import com.primeleague.shop.models.ShopCategory;
 import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.services.ShopManager;
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.TextUtils;
 import org.bukkit.entity.Player;
@@ -85,6 +86,7 @@ public class ListSubCommand implements SubCommand {
 
     // Mostra os itens da página atual
     String currencySymbol = plugin.getConfigLoader().getCurrencySymbol();
+    ShopManager shopManager = plugin.getShopManager();
     String lastCategory = null;
 
     for (int i = startIndex; i < endIndex; i++) {
@@ -96,8 +98,10 @@ public class ListSubCommand implements SubCommand {
         lastCategory = display.category;
       }
 
-      String buyPrice = display.item.getBuyPrice() > 0 ? String.format("%.2f", display.item.getBuyPrice()) : "N/A";
-      String sellPrice = display.item.getSellPrice() > 0 ? String.format("%.2f", display.item.getSellPrice()) : "N/A";
+      double buyValue = shopManager.getUnitPrice(display.item, true);
+      double sellValue = shopManager.getUnitPrice(display.item, false);
+      String buyPrice = buyValue > 0 ? String.format("%.2f", buyValue) : "N/A";
+      String sellPrice = sellValue > 0 ? String.format("%.2f", sellValue) : "N/A";
 
       player.sendMessage(TextUtils.colorize("  &7- &f" + display.item.getName() +
           " &7(Compra: &f" + buyPrice + currencySymbol +
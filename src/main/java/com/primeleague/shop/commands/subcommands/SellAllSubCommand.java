@@ -2,14 +2,12 @@ package com.primeleague.shop.commands.subcommands;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.commands.ShopCommand.SubCommand;
+import com.primeleague.shop.models.ShopAction;
 import com.primeleague.shop.models.ShopItem;
-import com.primeleague.shop.models.Transaction;
+import com.primeleague.shop.services.SellAllEngine;
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.TextUtils;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import java.sql.Timestamp;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -18,9 +16,11 @@ import java.util.Map;
 public class SellAllSubCommand implements SubCommand {
 
     private final PrimeLeagueShopPlugin plugin;
+    private final SellAllEngine sellAllEngine;
 
     public SellAllSubCommand(PrimeLeagueShopPlugin plugin) {
         this.plugin = plugin;
+        this.sellAllEngine = new SellAllEngine(plugin);
     }
 
     @Override
@@ -36,29 +36,21 @@ public class SellAllSubCommand implements SubCommand {
             return true;
         }
 
-        // Mapeia os itens e suas quantidades
-        Map<ShopItem, Integer> itemsToSell = new HashMap<>();
-        double totalValue = 0.0;
-
-        // Verifica todos os itens no inventário
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item == null) continue;
+        if (!plugin.getShopManager().allowAction(player, ShopAction.SELL_ALL)) {
+            return true;
+        }
 
-            // Tenta encontrar o item na loja
-            ShopItem shopItem = plugin.getShopManager().getItemByMaterialAndData(
-                item.getType().name(),
-                item.getData().getData()
-            );
+        SellAllEngine.SellAllResult result = sellAllEngine.sellAll(player);
 
-            if (shopItem != null && shopItem.getSellPrice() > 0) {
-                itemsToSell.put(shopItem, itemsToSell.getOrDefault(shopItem, 0) + item.getAmount());
-                totalValue += shopItem.getSellPrice() * item.getAmount();
-            }
+        if (result.isEmpty()) {
+            player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
+                "&cVocê não tem nenhum item que possa ser vendido na loja."));
+            return true;
         }
 
-        if (itemsToSell.isEmpty()) {
+        if (!result.isSuccess()) {
             player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
-                "&cVocê não tem nenhum item que possa ser vendido na loja."));
+                "&cNão foi possível completar a venda. Nenhum item foi removido."));
             return true;
         }
 
@@ -66,65 +58,25 @@ public class SellAllSubCommand implements SubCommand {
         player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
             "&aVendendo todos os itens disponíveis:"));
 
-        // Processa cada item
-        for (Map.Entry<ShopItem, Integer> entry : itemsToSell.entrySet()) {
+        // Mostra mensagem para cada item vendido
+        for (Map.Entry<ShopItem, Integer> entry : result.getSoldItems().entrySet()) {
             ShopItem shopItem = entry.getKey();
             int quantity = entry.getValue();
-            double itemTotal = shopItem.getSellPrice() * quantity;
-
-            // Remove os itens do inventário
-            int remaining = quantity;
-            ItemStack[] contents = player.getInventory().getContents();
 
-            for (int i = 0; i < contents.length && remaining > 0; i++) {
-                ItemStack invItem = contents[i];
-                if (invItem != null && shopItem.matches(invItem)) {
-                    int toRemove = Math.min(remaining, invItem.getAmount());
-                    remaining -= toRemove;
-
-                    if (toRemove == invItem.getAmount()) {
-                        contents[i] = null;
-                    } else {
-                        invItem.setAmount(invItem.getAmount() - toRemove);
-                    }
-                }
-            }
-
-            player.getInventory().setContents(contents);
-
-            // Registra a transação
-            Transaction transaction = new Transaction(
-                player.getName(),
-                shopItem,
-                quantity,
-                shopItem.getSellPrice(),
-                Transaction.TransactionType.SELL,
-                new Timestamp(System.currentTimeMillis())
-            );
-            transaction.markSuccessful();
-            plugin.getTransactionHistory().addTransaction(transaction);
-
-            // Atualiza o ranking
-            plugin.getRankingManager().addTransaction(transaction);
-
-            // Mostra mensagem para cada item vendido
             player.sendMessage(TextUtils.colorize(String.format(
                 "&7- &f%dx %s &7por &f%s%.2f",
                 quantity,
                 shopItem.getName(),
                 plugin.getConfigLoader().getCurrencySymbol(),
-                itemTotal
+                result.getItemValue(shopItem)
             )));
         }
 
-        // Adiciona o dinheiro ao jogador
-        plugin.getEconomy().depositPlayer(player.getName(), totalValue);
-
         // Mostra o total
         player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
             String.format("&aTotal recebido: &f%s%.2f",
                 plugin.getConfigLoader().getCurrencySymbol(),
-                totalValue)));
+                result.getTotalValue())));
 
         return true;
     }
@@ -94,7 +94,7 @@ public class SellSubCommand implements SubCommand {
     // Mostra uma mensagem de confirmação antes de abrir a GUI
     player.sendMessage(TextUtils.colorize("&aAbrindo confirmação de venda para &f" +
         item.getName() + " &a(Preço: &f" +
-        String.format("%.2f", item.getSellPrice()) +
+        String.format("%.2f", plugin.getShopManager().getUnitPrice(item, false)) +
         plugin.getConfigLoader().getCurrencySymbol() + "&a)"));
 
     // Abre a GUI de confirmação de venda
@@ -8,26 +8,40 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.scheduler.BukkitTask;
 
 public class DatabaseManager {
   private final PrimeLeagueShopPlugin plugin;
-  private HikariDataSource dataSource;
+  private volatile HikariDataSource dataSource;
   private final boolean enabled;
+  private final long reconnectIntervalMs;
+  private volatile long lastReconnectAttempt;
+  private volatile boolean healthy;
+  // Depois de fechado o pool nunca é recriado, nem por tarefas atrasadas
+  private volatile boolean closed;
+  private BukkitTask healthCheckTask;
 
   public DatabaseManager(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
     this.enabled = plugin.getConfig().getBoolean("settings.transaction.log-to-database", false);
+    this.reconnectIntervalMs = TimeUnit.SECONDS.toMillis(
+        plugin.getConfig().getLong("database.pool.reconnect-interval", 30));
 
     if (enabled) {
       setupPool();
+      startHealthCheck();
     }
   }
 
-  private void setupPool() {
-    if (!enabled) {
+  private synchronized void setupPool() {
+    if (!enabled || closed || (dataSource != null && !dataSource.isClosed())) {
       return;
     }
 
+    lastReconnectAttempt = System.currentTimeMillis();
+
     try {
       HikariConfig config = new HikariConfig();
 
@@ -37,13 +51,14 @@ public class DatabaseManager {
       String username = plugin.getConfig().getString("database.username", "root");
       String password = plugin.getConfig().getString("database.password", "");
 
+      config.setPoolName("PrimeLeagueShop-Pool");
       config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s", host, port, database));
       config.setUsername(username);
       config.setPassword(password);
-      config.setMaximumPoolSize(10);
-      config.setConnectionTimeout(TimeUnit.SECONDS.toMillis(30));
-      config.setIdleTimeout(TimeUnit.MINUTES.toMillis(10));
-      config.setMaxLifetime(TimeUnit.HOURS.toMillis(2));
+      applyPoolSettings(config, plugin.getConfig().getConfigurationSection("database.pool"));
+
+      // Não falha na inicialização se o banco estiver fora; o pool tenta de novo sozinho
+      config.setInitializationFailTimeout(-1);
 
       // Configurações específicas para MySQL
       config.addDataSourceProperty("cachePrepStmts", "true");
@@ -57,45 +72,153 @@ public class DatabaseManager {
       config.addDataSourceProperty("elideSetAutoCommits", "true");
       config.addDataSourceProperty("maintainTimeStats", "false");
 
-      dataSource = new HikariDataSource(config);
       plugin.getLogger().info(ShopConstants.LOG_DATABASE_CONNECT);
+      dataSource = new HikariDataSource(config);
+      healthy = true;
     } catch (Exception e) {
+      healthy = false;
       plugin.getLogger().log(Level.SEVERE,
           String.format(ShopConstants.LOG_DATABASE_ERROR, e.getMessage()));
     }
   }
 
+  /**
+   * Aplica o dimensionamento do pool definido em database.pool
+   */
+  private void applyPoolSettings(HikariConfig config, ConfigurationSection pool) {
+    int maximumSize = pool != null ? pool.getInt("maximum-size", 10) : 10;
+    int minimumIdle = pool != null ? pool.getInt("minimum-idle", 2) : 2;
+    long connectionTimeout = pool != null ? pool.getLong("connection-timeout", 5) : 5;
+    long idleTimeout = pool != null ? pool.getLong("idle-timeout", 600) : 600;
+    long maxLifetime = pool != null ? pool.getLong("max-lifetime", 1800) : 1800;
+    long keepalive = pool != null ? pool.getLong("keepalive-time", 300) : 300;
+    long leakDetection = pool != null ? pool.getLong("leak-detection-threshold", 10) : 10;
+
+    config.setMaximumPoolSize(Math.max(1, maximumSize));
+    config.setMinimumIdle(Math.max(0, Math.min(minimumIdle, maximumSize)));
+    config.setConnectionTimeout(TimeUnit.SECONDS.toMillis(connectionTimeout));
+    config.setIdleTimeout(TimeUnit.SECONDS.toMillis(idleTimeout));
+    config.setMaxLifetime(TimeUnit.SECONDS.toMillis(maxLifetime));
+    config.setKeepaliveTime(TimeUnit.SECONDS.toMillis(keepalive));
+
+    // 0 desativa a detecção de vazamento de conexões
+    if (leakDetection > 0) {
+      config.setLeakDetectionThreshold(TimeUnit.SECONDS.toMillis(leakDetection));
+    }
+  }
+
+  /**
+   * Agenda a verificação periódica de saúde do pool
+   */
+  private void startHealthCheck() {
+    long interval = plugin.getConfig().getLong("database.pool.health-check-interval", 60) * 20L;
+    if (interval <= 0) {
+      return;
+    }
+
+    healthCheckTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+      @Override
+      public void run() {
+        checkHealth();
+      }
+    }, interval, interval);
+  }
+
+  /**
+   * Verifica se o banco responde e, se não, descarta as conexões do pool
+   * para que sejam recriadas na próxima requisição
+   */
+  public void checkHealth() {
+    if (!enabled || closed) {
+      return;
+    }
+
+    boolean wasHealthy = healthy;
+    healthy = testConnection();
+
+    if (!healthy) {
+      plugin.getLogger().warning(ShopConstants.LOG_DATABASE_RECONNECT);
+      HikariDataSource current = dataSource;
+      if (current == null || current.isClosed()) {
+        setupPool();
+      } else {
+        HikariPoolMXBean pool = current.getHikariPoolMXBean();
+        if (pool != null) {
+          pool.softEvictConnections();
+        }
+      }
+    } else if (!wasHealthy) {
+      plugin.getLogger().info(ShopConstants.LOG_DATABASE_RECONNECTED);
+    }
+  }
+
   public Connection getConnection() throws SQLException {
-    if (!enabled || dataSource == null) {
+    if (!enabled) {
       throw new SQLException("Banco de dados não está habilitado");
     }
+    if (closed) {
+      throw new SQLException("Banco de dados já foi fechado");
+    }
+
+    HikariDataSource current = dataSource;
+    if (current == null || current.isClosed()) {
+      // Tenta recriar o pool, no máximo uma vez por intervalo
+      if (System.currentTimeMillis() - lastReconnectAttempt >= reconnectIntervalMs) {
+        plugin.getLogger().warning(ShopConstants.LOG_DATABASE_RECONNECT);
+        setupPool();
+        current = dataSource;
+      }
+      if (current == null || current.isClosed()) {
+        throw new SQLException("Pool de conexões indisponível");
+      }
+    }
 
     try {
-      return dataSource.getConnection();
+      return current.getConnection();
     } catch (SQLException e) {
+      healthy = false;
       plugin.getLogger().log(Level.SEVERE,
           String.format(ShopConstants.LOG_DATABASE_ERROR, e.getMessage()));
       throw e;
     }
   }
 
-  public void close() {
-    if (dataSource != null && !dataSource.isClosed()) {
-      dataSource.close();
+  /**
+   * Fecha o pool de vez; sincronizado com setupPool para não deixar um
+   * pool recém-criado aberto
+   */
+  public synchronized void close() {
+    closed = true;
+    if (healthCheckTask != null) {
+      healthCheckTask.cancel();
+      healthCheckTask = null;
+    }
+
+    HikariDataSource current = dataSource;
+    if (current != null && !current.isClosed()) {
+      current.close();
     }
+    dataSource = null;
   }
 
   public boolean isEnabled() {
     return enabled;
   }
 
+  /**
+   * Verifica se a última checagem de saúde teve sucesso
+   */
+  public boolean isHealthy() {
+    return healthy;
+  }
+
   public boolean testConnection() {
     if (!enabled) {
       return false;
     }
 
     try (Connection conn = getConnection()) {
-      return conn != null && !conn.isClosed();
+      return conn != null && conn.isValid(5);
     } catch (SQLException e) {
       plugin.getLogger().log(Level.SEVERE,
           String.format(ShopConstants.LOG_DATABASE_ERROR, "Teste de conexão falhou: " + e.getMessage()));
@@ -0,0 +1,87 @@
+package com.primeleague.shop.economy;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Executa chamadas à economia fora da thread principal
+ *
+ * As chamadas rodam em um executor próprio, então uma economia lenta nunca
+ * trava o tick do servidor; os resultados voltam para a thread principal
+ * pelo agendador do Bukkit.
+ */
+public class AsyncEconomy {
+
+  private final Plugin plugin;
+  private final EconomyBackend backend;
+  private final ExecutorService executor;
+
+  /**
+   * @param plugin  Plugin dono das tarefas agendadas
+   * @param backend Economia consultada
+   * @param threads Número de threads do executor
+   */
+  public AsyncEconomy(Plugin plugin, EconomyBackend backend, int threads) {
+    this.plugin = plugin;
+    this.backend = backend;
+
+    final AtomicInteger counter = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+      Thread thread = new Thread(runnable, "PrimeLeagueShop-Economy-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Executa uma tarefa no executor da economia
+   */
+  public <T> CompletableFuture<T> supply(Supplier<T> task) {
+    return CompletableFuture.supplyAsync(task, executor);
+  }
+
+  public CompletableFuture<Double> getBalance(String playerName) {
+    return supply(() -> backend.getBalance(playerName));
+  }
+
+  /**
+   * Entrega o resultado de uma tarefa na thread principal
+   *
+   * Falhas são registradas no log e o callback não é chamado.
+   */
+  public <T> void onMainThread(CompletableFuture<T> future, final Consumer<T> callback) {
+    future.whenComplete((result, error) -> {
+      if (error != null) {
+        plugin.getLogger().log(Level.WARNING, "Erro ao consultar a economia", error);
+        return;
+      }
+      if (!plugin.isEnabled()) {
+        return;
+      }
+      plugin.getServer().getScheduler().runTask(plugin, () -> callback.accept(result));
+    });
+  }
+
+  /**
+   * Encerra o executor, aguardando as consultas em andamento
+   */
+  public void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.primeleague.shop.economy;
+
+/**
+ * Origem dos saldos usada pelo {@link com.primeleague.shop.services.EconomyService}
+ *
+ * Implementações podem ser lentas (economias em banco de dados); chamadas
+ * fora da thread principal passam pelo {@link AsyncEconomy}. A interface não
+ * usa tipos do Vault, que só é carregado pelo {@link VaultEconomyBackend}.
+ */
+public interface EconomyBackend {
+
+  /**
+   * Nome exibido nos logs e no /shop admin
+   */
+  String getName();
+
+  double getBalance(String playerName);
+
+  EconomyResult withdraw(String playerName, double amount);
+
+  EconomyResult deposit(String playerName, double amount);
+
+  String format(double amount);
+}
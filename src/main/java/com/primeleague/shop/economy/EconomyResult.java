@@ -0,0 +1,56 @@
+package com.primeleague.shop.economy;
+
+/**
+ * Resultado de um saque ou depósito; imutável
+ *
+ * Tipo próprio do plugin, para que a economia em memória funcione sem o
+ * Vault instalado. Só o {@link VaultEconomyBackend} converte a resposta do
+ * Vault para ele.
+ */
+public final class EconomyResult {
+
+  private final double amount;
+  private final double balance;
+  private final boolean success;
+  private final String errorMessage;
+
+  private EconomyResult(double amount, double balance, boolean success, String errorMessage) {
+    this.amount = amount;
+    this.balance = balance;
+    this.success = success;
+    this.errorMessage = errorMessage;
+  }
+
+  /**
+   * @param amount  Quantia movimentada
+   * @param balance Saldo após a operação
+   */
+  public static EconomyResult success(double amount, double balance) {
+    return new EconomyResult(amount, balance, true, null);
+  }
+
+  /**
+   * @param amount       Quantia pedida
+   * @param balance      Saldo atual
+   * @param errorMessage Motivo da falha
+   */
+  public static EconomyResult failure(double amount, double balance, String errorMessage) {
+    return new EconomyResult(amount, balance, false, errorMessage);
+  }
+
+  public double getAmount() {
+    return amount;
+  }
+
+  public double getBalance() {
+    return balance;
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+}
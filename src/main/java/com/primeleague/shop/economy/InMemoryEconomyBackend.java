@@ -0,0 +1,71 @@
+package com.primeleague.shop.economy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Economia local em memória, para servidores de teste sem plugin de economia
+ * (nem Vault)
+ *
+ * Os saldos não são salvos e se perdem ao desligar o servidor.
+ */
+public class InMemoryEconomyBackend implements EconomyBackend {
+
+  private final ConcurrentMap<String, Double> balances;
+  private final double startingBalance;
+
+  /**
+   * @param startingBalance Saldo inicial de cada jogador
+   */
+  public InMemoryEconomyBackend(double startingBalance) {
+    this.balances = new ConcurrentHashMap<>();
+    this.startingBalance = startingBalance;
+  }
+
+  @Override
+  public String getName() {
+    return "Memória";
+  }
+
+  @Override
+  public double getBalance(String playerName) {
+    Double balance = balances.get(playerName.toLowerCase());
+    return balance != null ? balance : startingBalance;
+  }
+
+  @Override
+  public EconomyResult withdraw(String playerName, double amount) {
+    if (amount < 0) {
+      return EconomyResult.failure(amount, getBalance(playerName), "Valor negativo");
+    }
+
+    final double[] result = new double[1];
+    final boolean[] success = new boolean[1];
+    balances.compute(playerName.toLowerCase(), (name, current) -> {
+      double balance = current != null ? current : startingBalance;
+      success[0] = balance >= amount;
+      result[0] = success[0] ? balance - amount : balance;
+      return result[0];
+    });
+
+    return success[0]
+        ? EconomyResult.success(amount, result[0])
+        : EconomyResult.failure(amount, result[0], "Saldo insuficiente");
+  }
+
+  @Override
+  public EconomyResult deposit(String playerName, double amount) {
+    if (amount < 0) {
+      return EconomyResult.failure(amount, getBalance(playerName), "Valor negativo");
+    }
+
+    double balance = balances.merge(playerName.toLowerCase(), startingBalance + amount,
+        (current, ignored) -> current + amount);
+    return EconomyResult.success(amount, balance);
+  }
+
+  @Override
+  public String format(double amount) {
+    return String.format("%.2f", amount);
+  }
+}
@@ -0,0 +1,68 @@
+package com.primeleague.shop.economy;
+
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Server;
+import org.bukkit.plugin.RegisteredServiceProvider;
+
+/**
+ * Economia do servidor obtida pelo Vault
+ *
+ * Única classe que usa tipos do Vault; só é carregada quando o backend
+ * configurado é o Vault.
+ */
+public class VaultEconomyBackend implements EconomyBackend {
+
+  private final Economy economy;
+
+  public VaultEconomyBackend(Economy economy) {
+    this.economy = economy;
+  }
+
+  /**
+   * Procura a economia registrada no Vault
+   *
+   * @return Backend pronto, ou null se nenhum plugin de economia estiver registrado
+   */
+  public static VaultEconomyBackend lookup(Server server) {
+    RegisteredServiceProvider<Economy> rsp = server.getServicesManager().getRegistration(Economy.class);
+    if (rsp == null || rsp.getProvider() == null) {
+      return null;
+    }
+    return new VaultEconomyBackend(rsp.getProvider());
+  }
+
+  @Override
+  public String getName() {
+    return "Vault (" + economy.getName() + ")";
+  }
+
+  @Override
+  public double getBalance(String playerName) {
+    return economy.getBalance(playerName);
+  }
+
+  @Override
+  public EconomyResult withdraw(String playerName, double amount) {
+    return convert(economy.withdrawPlayer(playerName, amount));
+  }
+
+  @Override
+  public EconomyResult deposit(String playerName, double amount) {
+    return convert(economy.depositPlayer(playerName, amount));
+  }
+
+  @Override
+  public String format(double amount) {
+    return economy.format(amount);
+  }
+
+  private static EconomyResult convert(EconomyResponse response) {
+    if (response == null) {
+      return EconomyResult.failure(0.0, 0.0, "Resposta vazia da economia");
+    }
+    return response.transactionSuccess()
+        ? EconomyResult.success(response.amount, response.balance)
+        : EconomyResult.failure(response.amount, response.balance, response.errorMessage);
+  }
+}
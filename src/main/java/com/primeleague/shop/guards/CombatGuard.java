@@ -0,0 +1,48 @@
+package com.primeleague.shop.guards;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.combat.CombatManager;
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+
+/**
+ * Bloqueia a loja para jogadores em combate
+ *
+ * Comandos seguem combat.block-commands e cliques na GUI seguem
+ * combat.block-gui; compras e vendas são bloqueadas se qualquer um dos dois
+ * estiver ativo.
+ */
+public class CombatGuard implements ShopGuard {
+
+  private final PrimeLeagueShopPlugin plugin;
+
+  public CombatGuard(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  @Override
+  public GuardResult check(PlayerSession session, ShopAction action) {
+    CombatManager combatManager = plugin.getCombatManager();
+    if (combatManager == null) {
+      return GuardResult.ALLOW; // Combate desativado
+    }
+
+    boolean blocked;
+    switch (action) {
+      case COMMAND:
+        blocked = combatManager.isCommandBlocked(session);
+        break;
+      case GUI_CLICK:
+        blocked = combatManager.isGuiBlocked(session);
+        break;
+      default:
+        blocked = combatManager.isCommandBlocked(session) || combatManager.isGuiBlocked(session);
+        break;
+    }
+
+    if (!blocked) {
+      return GuardResult.ALLOW;
+    }
+    return GuardResult.denyAndClose(combatManager.getBlockedMessage(session));
+  }
+}
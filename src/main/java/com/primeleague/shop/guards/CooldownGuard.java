@@ -0,0 +1,107 @@
+package com.primeleague.shop.guards;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+import com.primeleague.shop.utils.CacheManager;
+import com.primeleague.shop.utils.Cleanable;
+import com.primeleague.shop.utils.TextUtils;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intervalo mínimo entre duas ações iguais do mesmo jogador
+ *
+ * Configurado em settings.transaction.cooldown, em milissegundos por ação.
+ * O intervalo só começa a contar quando a cadeia inteira aceita a ação. Os
+ * instantes ficam por UUID fora da sessão, então sair e voltar não zera o
+ * intervalo; cada entrada expira quando o maior intervalo já passou.
+ */
+public class CooldownGuard implements ShopGuard, Cleanable {
+
+  private static final ShopAction[] ACTIONS = ShopAction.values();
+
+  // Bem acima do número de jogadores ativos dentro de um intervalo
+  private static final int MAX_TRACKED_PLAYERS = 10000;
+
+  private final PrimeLeagueShopPlugin plugin;
+  private final long[] cooldowns;
+  private final boolean enabled;
+  // Instante (nanoTime) da última ação aceita, por ação
+  private final CacheManager<UUID, long[]> lastActions;
+
+  public CooldownGuard(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+    this.cooldowns = new long[ACTIONS.length];
+
+    ConfigurationSection section = plugin.getConfig().getConfigurationSection("settings.transaction.cooldown");
+    long max = 0;
+    for (ShopAction action : ACTIONS) {
+      long millis = section != null ? section.getLong(action.getConfigKey(), 0) : 0;
+      cooldowns[action.ordinal()] = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+      max = Math.max(max, cooldowns[action.ordinal()]);
+    }
+    this.enabled = max > 0;
+    this.lastActions = new CacheManager<>(MAX_TRACKED_PLAYERS, max, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Se alguma ação tem intervalo configurado
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public GuardResult check(PlayerSession session, ShopAction action) {
+    long cooldown = cooldowns[action.ordinal()];
+    if (cooldown == 0) {
+      return GuardResult.ALLOW;
+    }
+
+    long[] last = lastActions.get(session.getUniqueId());
+    if (last == null || last[action.ordinal()] == 0) {
+      return GuardResult.ALLOW;
+    }
+
+    long remaining = last[action.ordinal()] + cooldown - System.nanoTime();
+    if (remaining <= 0) {
+      return GuardResult.ALLOW;
+    }
+
+    long seconds = (TimeUnit.NANOSECONDS.toMillis(remaining) + 999) / 1000;
+    return GuardResult.deny(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
+        plugin.getConfigLoader().getMessage("cooldown", "&cAguarde {time} segundos para fazer isso novamente.")
+            .replace("{time}", String.valueOf(seconds))));
+  }
+
+  @Override
+  public boolean isCacheable() {
+    return false; // Muda a cada ação aceita
+  }
+
+  @Override
+  public void onAllowed(PlayerSession session, ShopAction action) {
+    if (cooldowns[action.ordinal()] == 0) {
+      return;
+    }
+    final int index = action.ordinal();
+    final long now = System.nanoTime();
+    // Cópia nova a cada ação: renova a expiração e nunca altera um array já publicado
+    lastActions.compute(session.getUniqueId(), (id, current) -> {
+      long[] updated = current != null ? current.clone() : new long[ACTIONS.length];
+      updated[index] = now;
+      return updated;
+    });
+  }
+
+  /**
+   * Descarta jogadores sem intervalo pendente
+   */
+  @Override
+  public void cleanup() {
+    lastActions.cleanup();
+  }
+}
@@ -0,0 +1,173 @@
+package com.primeleague.shop.guards;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+import com.primeleague.shop.session.SessionKey;
+import com.primeleague.shop.utils.Cleanable;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cadeia de guardas avaliada no início de cada ponto de entrada da loja
+ *
+ * Os guardas rodam na ordem em que foram adicionados e a primeira recusa
+ * encerra a avaliação, antes de qualquer GUI ser montada ou do banco ser
+ * consultado. A parte cacheável da cadeia (combate, permissão) é avaliada
+ * uma vez por jogador, ação e tick; uma recusa vale até o fim do tick,
+ * então cliques repetidos no mesmo tick saem direto do cache. As decisões
+ * ficam na sessão do jogador e somem com ela.
+ *
+ * Chamada na thread principal.
+ */
+public class GuardChain implements Cleanable {
+
+  private static final int ACTION_COUNT = ShopAction.values().length;
+  private static final SessionKey<Decisions> DECISIONS = SessionKey.create("guard-decisions");
+
+  private final PrimeLeagueShopPlugin plugin;
+  private final List<ShopGuard> cacheableGuards;
+  private final List<ShopGuard> dynamicGuards;
+  private final List<ShopGuard> guards;
+  private volatile long currentTick;
+  private BukkitTask tickTask;
+
+  /**
+   * Decisões de um jogador no tick em que foram tomadas
+   */
+  private static final class Decisions {
+    private final long tick;
+    private final GuardResult[] results = new GuardResult[ACTION_COUNT];
+
+    Decisions(long tick) {
+      this.tick = tick;
+    }
+  }
+
+  public GuardChain(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+    this.cacheableGuards = new ArrayList<>();
+    this.dynamicGuards = new ArrayList<>();
+    this.guards = new ArrayList<>();
+  }
+
+  /**
+   * Adiciona um guarda ao fim da cadeia
+   *
+   * Guardas cacheáveis sempre rodam antes dos que consomem estado, para que
+   * uma recusa barata não gaste o limite de frequência do jogador.
+   */
+  public GuardChain add(ShopGuard guard) {
+    (guard.isCacheable() ? cacheableGuards : dynamicGuards).add(guard);
+    guards.add(guard);
+    return this;
+  }
+
+  /**
+   * Inicia a contagem de ticks que delimita o cache
+   */
+  public void start() {
+    tickTask = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+      @Override
+      public void run() {
+        currentTick++;
+      }
+    }, 1L, 1L);
+  }
+
+  public void shutdown() {
+    if (tickTask != null) {
+      tickTask.cancel();
+      tickTask = null;
+    }
+  }
+
+  /**
+   * Avalia a cadeia para a ação
+   *
+   * @param player Jogador
+   * @param action Ação pretendida
+   * @return Primeira recusa encontrada, ou {@link GuardResult#ALLOW}
+   */
+  public GuardResult check(Player player, ShopAction action) {
+    return check(plugin.getSessionManager().get(player), action);
+  }
+
+  /**
+   * Avalia a cadeia para a ação com a sessão já obtida
+   */
+  public GuardResult check(PlayerSession session, ShopAction action) {
+    long tick = currentTick;
+    Decisions current = session.get(DECISIONS);
+    if (current == null || current.tick != tick) {
+      current = new Decisions(tick);
+      session.set(DECISIONS, current);
+    }
+
+    int index = action.ordinal();
+    GuardResult cached = current.results[index];
+    if (cached == null) {
+      cached = evaluate(cacheableGuards, session, action);
+      current.results[index] = cached;
+    }
+    if (!cached.isAllowed()) {
+      return cached;
+    }
+
+    GuardResult result = evaluate(dynamicGuards, session, action);
+    if (!result.isAllowed()) {
+      current.results[index] = result;
+      return result;
+    }
+
+    for (ShopGuard guard : guards) {
+      guard.onAllowed(session, action);
+    }
+    return GuardResult.ALLOW;
+  }
+
+  /**
+   * Avalia a cadeia e, se recusada, avisa o jogador
+   *
+   * @return true se a ação pode prosseguir
+   */
+  public boolean allow(Player player, ShopAction action) {
+    GuardResult result = check(player, action);
+    if (result.isAllowed()) {
+      return true;
+    }
+
+    if (result.shouldCloseInventory()) {
+      player.closeInventory();
+    }
+    if (result.getMessage() != null) {
+      player.sendMessage(result.getMessage());
+    }
+    return false;
+  }
+
+  /**
+   * Limpa os guardas que guardam estado fora da sessão
+   */
+  @Override
+  public void cleanup() {
+    for (ShopGuard guard : guards) {
+      if (guard instanceof Cleanable) {
+        ((Cleanable) guard).cleanup();
+      }
+    }
+  }
+
+  private static GuardResult evaluate(List<ShopGuard> chain, PlayerSession session, ShopAction action) {
+    for (ShopGuard guard : chain) {
+      GuardResult result = guard.check(session, action);
+      if (!result.isAllowed()) {
+        return result;
+      }
+    }
+    return GuardResult.ALLOW;
+  }
+}
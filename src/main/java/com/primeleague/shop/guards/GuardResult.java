@@ -0,0 +1,53 @@
+package com.primeleague.shop.guards;
+
+/**
+ * Decisão de um guarda; imutável
+ */
+public final class GuardResult {
+
+  public static final GuardResult ALLOW = new GuardResult(true, null, false);
+
+  /**
+   * Recusa sem aviso ao jogador
+   */
+  public static final GuardResult SILENT_DENY = new GuardResult(false, null, false);
+
+  private final boolean allowed;
+  private final String message;
+  private final boolean closeInventory;
+
+  private GuardResult(boolean allowed, String message, boolean closeInventory) {
+    this.allowed = allowed;
+    this.message = message;
+    this.closeInventory = closeInventory;
+  }
+
+  /**
+   * Recusa com uma mensagem já colorida
+   */
+  public static GuardResult deny(String message) {
+    return new GuardResult(false, message, false);
+  }
+
+  /**
+   * Recusa que também fecha a GUI da loja aberta
+   */
+  public static GuardResult denyAndClose(String message) {
+    return new GuardResult(false, message, true);
+  }
+
+  public boolean isAllowed() {
+    return allowed;
+  }
+
+  /**
+   * Mensagem para o jogador, ou null para recusar em silêncio
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  public boolean shouldCloseInventory() {
+    return closeInventory;
+  }
+}
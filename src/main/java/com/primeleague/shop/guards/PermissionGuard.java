@@ -0,0 +1,39 @@
+package com.primeleague.shop.guards;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+import com.primeleague.shop.utils.TextUtils;
+
+/**
+ * Exige a permissão básica de cada ação, como declarada no plugin.yml
+ */
+public class PermissionGuard implements ShopGuard {
+
+  private final PrimeLeagueShopPlugin plugin;
+
+  public PermissionGuard(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  private static String permissionFor(ShopAction action) {
+    switch (action) {
+      case BUY:
+        return "primeleague.shop.buy";
+      case SELL:
+      case SELL_ALL:
+        return "primeleague.shop.sell";
+      default:
+        return "primeleague.shop.use";
+    }
+  }
+
+  @Override
+  public GuardResult check(PlayerSession session, ShopAction action) {
+    if (session.getPlayer().hasPermission(permissionFor(action))) {
+      return GuardResult.ALLOW;
+    }
+    return GuardResult.deny(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
+        plugin.getConfigLoader().getMessage("no_permission", "&cVocê não tem permissão para isso.")));
+  }
+}
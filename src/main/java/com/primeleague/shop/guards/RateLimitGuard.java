@@ -0,0 +1,39 @@
+package com.primeleague.shop.guards;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+import com.primeleague.shop.utils.TextUtils;
+
+/**
+ * Aplica settings.transaction.rate-limit pelo {@link com.primeleague.shop.utils.RateLimiter}
+ *
+ * Cliques acima do limite são descartados em silêncio; as demais ações
+ * avisam o jogador.
+ */
+public class RateLimitGuard implements ShopGuard {
+
+  private final PrimeLeagueShopPlugin plugin;
+
+  public RateLimitGuard(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  @Override
+  public GuardResult check(PlayerSession session, ShopAction action) {
+    if (plugin.getRateLimiter().tryAcquire(session, action)) {
+      return GuardResult.ALLOW;
+    }
+    if (action == ShopAction.GUI_CLICK) {
+      return GuardResult.SILENT_DENY;
+    }
+    return GuardResult.deny(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
+        plugin.getConfigLoader().getMessage("rate_limit",
+            "&cVocê está fazendo transações muito rápido. Aguarde um momento.")));
+  }
+
+  @Override
+  public boolean isCacheable() {
+    return false; // Cada verificação consome do balde
+  }
+}
@@ -0,0 +1,34 @@
+package com.primeleague.shop.guards;
+
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+
+/**
+ * Uma verificação feita antes de qualquer ação da loja
+ */
+public interface ShopGuard {
+
+  /**
+   * Verifica se o jogador pode executar a ação
+   *
+   * @param session Sessão do jogador
+   * @param action  Ação pretendida
+   * @return {@link GuardResult#ALLOW} ou a recusa com a mensagem para o jogador
+   */
+  GuardResult check(PlayerSession session, ShopAction action);
+
+  /**
+   * Se a decisão depende só do estado do jogador e pode ser reaproveitada
+   * no mesmo tick. Guardas que consomem algo a cada verificação (limite de
+   * frequência) devem retornar false.
+   */
+  default boolean isCacheable() {
+    return true;
+  }
+
+  /**
+   * Chamado quando a cadeia inteira aceitou a ação
+   */
+  default void onAllowed(PlayerSession session, ShopAction action) {
+  }
+}
@@ -4,10 +4,12 @@ import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.events.CategoryOpenEvent;
 import com.primeleague.shop.models.ShopCategory;
 import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.services.ShopManager;
+import com.primeleague.shop.session.PlayerSession;
+import com.primeleague.shop.session.SessionKey;
 import com.primeleague.shop.utils.ItemUtils;
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.TextUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
@@ -15,22 +17,21 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
 
 /**
  * Cria e gerencia a GUI de uma categoria
  */
 public class CategoryGUI {
 
+  // Estado da GUI guardado na sessão do jogador
+  private static final SessionKey<PlayerCategoryData> CATEGORY_DATA = SessionKey.create("category-data");
+  private static final SessionKey<PreviewData> PREVIEW_DATA = SessionKey.create("category-preview");
+
   private final PrimeLeagueShopPlugin plugin;
-  private final Map<UUID, PlayerCategoryData> playerData;
-  private final Map<UUID, PreviewData> previewData;
+  private final DisplayItemCache displayCache;
   private final int rows;
   private final String title;
-  private List<ShopItem> items;
 
   // Constantes de navegação
   private static final int BACK_BUTTON_SLOT = 45;
@@ -56,12 +57,17 @@ public class CategoryGUI {
   private static class PlayerCategoryData {
     private ShopCategory currentCategory;
     private int currentPage;
-    private final Map<Integer, ShopItem> slotMap;
+    private ShopItem[] slotItems;
+    private boolean nextPage;
 
     public PlayerCategoryData() {
-      this.slotMap = new HashMap<>();
+      this.slotItems = new ShopItem[0];
       this.currentPage = 1;
     }
+
+    private ShopItem getItem(int slot) {
+      return slot >= 0 && slot < slotItems.length ? slotItems[slot] : null;
+    }
   }
 
   private static class PreviewData {
@@ -87,8 +93,7 @@ public class CategoryGUI {
    */
   public CategoryGUI(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.playerData = new HashMap<>();
-    this.previewData = new HashMap<>();
+    this.displayCache = new DisplayItemCache(plugin);
     this.rows = plugin.getConfig().getInt("gui.category.rows", 6);
     this.title = plugin.getConfigLoader().getMessage("gui.category.title", "Categoria");
   }
@@ -97,14 +102,14 @@ public class CategoryGUI {
    * Obtém ou cria dados do jogador
    */
   private PlayerCategoryData getPlayerData(Player player) {
-    return playerData.computeIfAbsent(player.getUniqueId(), k -> new PlayerCategoryData());
+    return plugin.getSessionManager().get(player).computeIfAbsent(CATEGORY_DATA, PlayerCategoryData::new);
   }
 
   /**
    * Remove dados do jogador quando ele desconecta
    */
   public void removePlayerData(Player player) {
-    playerData.remove(player.getUniqueId());
+    plugin.getSessionManager().get(player).remove(CATEGORY_DATA);
   }
 
   /**
@@ -117,25 +122,31 @@ public class CategoryGUI {
   public void openCategoryGUI(Player player, ShopCategory category, int page) {
     plugin.getLogger().info(String.format(LOG_OPENING_CATEGORY, category.getName(), player.getName(), page));
 
-    // Obtém o título já colorizado
-    String title = plugin.getConfigLoader().getCategoryGuiTitle(category.getName());
+    DisplayItemCache.CategoryPage categoryPage = displayCache.getPage(category, page, this::renderPage);
 
     // Obtém ou cria os dados do jogador
     PlayerCategoryData data = getPlayerData(player);
-
-    // Configura os dados antes de criar o inventário
     data.currentCategory = category;
     data.currentPage = page;
-    data.slotMap.clear();
+    data.nextPage = categoryPage.hasNextPage();
+    data.slotItems = categoryPage.getSlotItems();
 
-    plugin.getLogger().info("Título definido para jogador " + player.getName() + ": " + title);
+    Inventory inventory = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.CATEGORY, categoryPage.getSize(), categoryPage.getTitle());
+    categoryPage.applyTo(inventory);
 
-    items = category.getItems();
-    int startIndex = page * ITEMS_PER_PAGE;
-    int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, items.size());
+    player.openInventory(inventory);
+  }
 
-    // Cria o inventário com o título já colorizado
-    Inventory inventory = Bukkit.createInventory(null, rows * 9, title);
+  /**
+   * Monta o conteúdo de uma página de categoria para o cache
+   */
+  private DisplayItemCache.CategoryPage renderPage(ShopCategory category, int page) {
+    // Obtém o título já colorizado
+    String title = plugin.getConfigLoader().getCategoryGuiTitle(category.getName());
+
+    int size = rows * 9;
+    ItemStack[] contents = new ItemStack[size];
+    ShopItem[] slotItems = new ShopItem[size];
 
     if (plugin.getConfigLoader().shouldFillEmptySlots()) {
       ItemStack fillItem = ItemUtils.createItem(
@@ -143,49 +154,55 @@ public class CategoryGUI {
           plugin.getConfigLoader().getFillData(),
           " ");
 
-      for (int i = 0; i < rows * 9; i++) {
-        inventory.setItem(i, fillItem);
+      for (int i = 0; i < size; i++) {
+        contents[i] = fillItem;
       }
     }
 
+    List<ShopItem> items = category.getItems();
+    int startIndex = page * ITEMS_PER_PAGE;
+    int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, items.size());
+
     String currencySymbol = plugin.getConfigLoader().getCurrencySymbol();
+    ShopManager shopManager = plugin.getShopManager();
     for (int i = startIndex; i < endIndex; i++) {
       ShopItem item = items.get(i);
       int slot = FIRST_ITEM_SLOT + (i - startIndex);
 
-      if (slot > FIRST_ITEM_SLOT + ITEMS_PER_PAGE - 1)
+      if (slot > FIRST_ITEM_SLOT + ITEMS_PER_PAGE - 1 || slot >= size)
         break;
 
-      ItemStack display = item.createDisplayItem(currencySymbol);
-      inventory.setItem(slot, display);
-      data.slotMap.put(slot, item);
+      contents[slot] = shopManager.createDisplayItem(item, currencySymbol);
+      slotItems[slot] = item;
     }
 
-    setupNavigationButtons(inventory, data);
+    boolean nextPage = (page + 1) * ITEMS_PER_PAGE < items.size();
+    setupNavigationButtons(contents, page, nextPage);
 
-    player.openInventory(inventory);
+    return new DisplayItemCache.CategoryPage(title, contents, slotItems, nextPage);
   }
 
-  private void setupNavigationButtons(Inventory inventory, PlayerCategoryData data) {
+  private void setupNavigationButtons(ItemStack[] contents, int page, boolean nextPage) {
     // Botão voltar
-    inventory.setItem(BACK_BUTTON_SLOT,
+    setSlot(contents, BACK_BUTTON_SLOT,
         createNavigationButton(Material.getMaterial(ShopConstants.MATERIAL_BACK_BUTTON), "§cVoltar"));
 
     // Botões de paginação
-    if (data.currentPage > 0) {
-      inventory.setItem(PREV_PAGE_SLOT,
+    if (page > 0) {
+      setSlot(contents, PREV_PAGE_SLOT,
           createNavigationButton(Material.getMaterial(ShopConstants.MATERIAL_PREVIOUS_PAGE), "§ePágina Anterior"));
     }
 
-    if (hasNextPage(data)) {
-      inventory.setItem(NEXT_PAGE_SLOT,
+    if (nextPage) {
+      setSlot(contents, NEXT_PAGE_SLOT,
           createNavigationButton(Material.getMaterial(ShopConstants.MATERIAL_NEXT_PAGE), "§ePróxima Página"));
     }
   }
 
-  private boolean hasNextPage(PlayerCategoryData data) {
-    int startIndex = (data.currentPage + 1) * ITEMS_PER_PAGE;
-    return startIndex < data.currentCategory.getItems().size();
+  private void setSlot(ItemStack[] contents, int slot, ItemStack item) {
+    if (slot < contents.length) {
+      contents[slot] = item;
+    }
   }
 
   /**
@@ -206,32 +223,23 @@ public class CategoryGUI {
         return false;
       }
 
-      plugin.getLogger().info(String.format("Processando clique para %s: slot=%d, categoria=%s, página=%d",
-          player.getName(), slot, data.currentCategory.getName(), data.currentPage));
-
       if (slot == BACK_BUTTON_SLOT) {
-        plugin.getLogger().info("Voltando ao menu principal para " + player.getName());
         plugin.getShopGUI().openMainMenu(player);
         return true;
       }
 
       if (slot == PREV_PAGE_SLOT && data.currentPage > 0) {
-        plugin.getLogger().info("Mudando para página anterior para " + player.getName());
         openCategoryGUI(player, data.currentCategory, data.currentPage - 1);
         return true;
       }
 
-      if (slot == NEXT_PAGE_SLOT && hasNextPage(data)) {
-        plugin.getLogger().info("Mudando para próxima página para " + player.getName());
+      if (slot == NEXT_PAGE_SLOT && data.nextPage) {
         openCategoryGUI(player, data.currentCategory, data.currentPage + 1);
         return true;
       }
 
-      ShopItem clickedItem = data.slotMap.get(slot);
+      ShopItem clickedItem = data.getItem(slot);
       if (clickedItem != null) {
-        plugin.getLogger().info(String.format("Clique em item para %s: %s (slot %d)",
-            player.getName(), clickedItem.getName(), slot));
-
         if (isShiftClick && !isLeftClick) {
           showPreview(player, clickedItem);
         } else {
@@ -258,10 +266,13 @@ public class CategoryGUI {
     PlayerCategoryData data = getPlayerData(player);
     data.currentCategory = category;
     data.currentPage = page;
+    data.nextPage = page < getTotalPages(category);
 
     String title = TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.category_title",
         "&8{category}").replace("{category}", category.getName()));
-    Inventory inv = Bukkit.createInventory(null, rows * 9, title);
+    Inventory inv = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.CATEGORY, rows * 9, title);
+    ShopItem[] slotItems = new ShopItem[inv.getSize()];
+    data.slotItems = slotItems;
 
     // Preenche slots vazios
     if (plugin.getConfigLoader().shouldFillEmptySlots()) {
@@ -289,9 +300,9 @@ public class CategoryGUI {
     String currencySymbol = plugin.getConfigLoader().getCurrencySymbol();
     for (int i = startIndex; i < endIndex; i++) {
         ShopItem item = items.get(i);
-        ItemStack icon = item.createDisplayItem(currencySymbol);
+        ItemStack icon = plugin.getShopManager().createDisplayItem(item, currencySymbol);
         inv.setItem(slot, icon);
-        data.slotMap.put(slot, item);
+        slotItems[slot] = item;
 
         slot += (slot % 9 == 7) ? 3 : 1;
     }
@@ -355,18 +366,18 @@ public class CategoryGUI {
     player.getInventory().addItem(item.toItemStack(64)); // Usa quantidade máxima padrão do Minecraft
 
     // Salva dados do preview
-    previewData.put(player.getUniqueId(), new PreviewData(item, 64));
+    final PlayerSession session = plugin.getSessionManager().get(player);
+    session.set(PREVIEW_DATA, new PreviewData(item, 64));
 
     // Agenda restauração do inventário
     plugin.getServer().getScheduler().runTaskLater(plugin, new Runnable() {
       @Override
       public void run() {
-        if (player.isOnline()) {
-          PreviewData preview = previewData.get(player.getUniqueId());
+        if (session.isOpen()) {
+          PreviewData preview = session.remove(PREVIEW_DATA);
           if (preview != null && !preview.isExpired()) {
             player.getInventory().setContents(oldContents);
             player.sendMessage(TextUtils.colorize("&aPreview finalizado!"));
-            previewData.remove(player.getUniqueId());
           }
         }
       }
@@ -378,9 +389,4 @@ public class CategoryGUI {
   private int getTotalPages(ShopCategory category) {
     return (category.getItems().size() - 1) / 28 + 1;
   }
-
-  public void cleanup() {
-    // Remove dados de preview expirados
-    previewData.entrySet().removeIf(entry -> entry.getValue().isExpired());
-  }
 }
@@ -3,8 +3,9 @@ package com.primeleague.shop.gui;
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.models.ShopItem;
 import com.primeleague.shop.models.Transaction;
+import com.primeleague.shop.services.ShopManager;
+import com.primeleague.shop.session.SessionKey;
 import com.primeleague.shop.utils.TextUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
@@ -15,18 +16,17 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.ChatColor;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
 import java.sql.Timestamp;
 
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.ItemBuilder;
 
 public class ConfirmationGUI {
+  // Confirmação aberta, guardada na sessão do jogador
+  private static final SessionKey<ConfirmationData> CONFIRMATION_DATA = SessionKey.create("confirmation-data");
+
   private final PrimeLeagueShopPlugin plugin;
-  private final Map<UUID, ConfirmationData> playerData;
 
   private static class ConfirmationData {
     private final ShopItem item;
@@ -42,12 +42,11 @@ public class ConfirmationGUI {
 
   public ConfirmationGUI(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.playerData = new HashMap<>();
   }
 
   public void openBuyConfirmation(Player player, ShopItem item, boolean isBuying) {
     // Cria um inventário 5x9 (45 slots) para melhor organização
-    Inventory inv = Bukkit.createInventory(null, 45, TextUtils.colorize("&8Confirmar " + (isBuying ? "Compra" : "Venda")));
+    Inventory inv = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.CONFIRMATION, 45, TextUtils.colorize("&8Confirmar " + (isBuying ? "Compra" : "Venda")));
     String currencySymbol = plugin.getConfigLoader().getCurrencySymbol();
 
     // Borda decorativa
@@ -67,21 +66,22 @@ public class ConfirmationGUI {
     }
 
     // Item central com informações detalhadas
-    ItemStack displayItem = item.createDisplayItem(currencySymbol);
+    ShopManager shopManager = plugin.getShopManager();
+    double pricePerUnit = shopManager.getUnitPrice(item, isBuying);
+    double totalPrice = shopManager.calculatePrice(player, item, 1, isBuying);
+    ItemStack displayItem = item.createDisplayItem(currencySymbol,
+        shopManager.getUnitPrice(item, true), shopManager.getUnitPrice(item, false));
     displayItem.setAmount(1); // Começa com quantidade 1
     ItemMeta meta = displayItem.getItemMeta();
     List<String> lore = new ArrayList<>();
     lore.add("");
     lore.add(TextUtils.colorize("&fDetalhes da " + (isBuying ? "compra" : "venda") + ":"));
     lore.add(TextUtils.colorize("&7➥ Quantidade: &f1"));
-    double pricePerUnit = isBuying ? item.getBuyPrice() : item.getSellPrice();
     lore.add(TextUtils.colorize("&7➥ Preço unitário: &f" + currencySymbol + String.format("%.2f", pricePerUnit)));
-    lore.add(TextUtils.colorize("&7➥ Total: &f" + currencySymbol + String.format("%.2f", pricePerUnit)));
+    lore.add(TextUtils.colorize("&7➥ Total: &f" + currencySymbol + String.format("%.2f", totalPrice)));
     lore.add("");
     if (isBuying) {
-      double playerBalance = plugin.getEconomyService().getBalance(player);
-      lore.add(TextUtils.colorize("&7Seu saldo: &f" + currencySymbol + String.format("%.2f", playerBalance)));
-      lore.add(TextUtils.colorize("&7Saldo após compra: &f" + currencySymbol + String.format("%.2f", playerBalance - pricePerUnit)));
+      addBalanceLore(lore, plugin.getEconomyService().getCachedBalance(player), totalPrice, currencySymbol);
     }
     meta.setLore(lore);
     displayItem.setItemMeta(meta);
@@ -114,7 +114,7 @@ public class ConfirmationGUI {
     confirmMeta.setDisplayName(TextUtils.colorize("&a&lCONFIRMAR"));
     List<String> confirmLore = new ArrayList<>();
     confirmLore.add(TextUtils.colorize("&7Clique para confirmar a " + (isBuying ? "compra" : "venda")));
-    confirmLore.add(TextUtils.colorize("&7Total: &f" + currencySymbol + String.format("%.2f", pricePerUnit)));
+    confirmLore.add(TextUtils.colorize("&7Total: &f" + currencySymbol + String.format("%.2f", totalPrice)));
     confirmMeta.setLore(confirmLore);
     confirmButton.setItemMeta(confirmMeta);
     inv.setItem(41, confirmButton);
@@ -129,8 +129,39 @@ public class ConfirmationGUI {
     inv.setItem(39, cancelButton);
 
     // Salva dados do jogador
-    playerData.put(player.getUniqueId(), new ConfirmationData(item, 1, isBuying));
+    ConfirmationData data = new ConfirmationData(item, 1, isBuying);
+    plugin.getSessionManager().get(player).set(CONFIRMATION_DATA, data);
     player.openInventory(inv);
+    refreshBalance(player, data);
+  }
+
+  /**
+   * Linhas de saldo da compra; mostra "carregando" enquanto o saldo é consultado
+   */
+  private void addBalanceLore(List<String> lore, Double playerBalance, double totalPrice, String currencySymbol) {
+    if (playerBalance == null) {
+      lore.add(TextUtils.colorize("&7Seu saldo: &fcarregando..."));
+      return;
+    }
+    lore.add(TextUtils.colorize("&7Seu saldo: &f" + currencySymbol + String.format("%.2f", playerBalance)));
+    lore.add(TextUtils.colorize("&7Saldo após compra: &f" + currencySymbol + String.format("%.2f", playerBalance - totalPrice)));
+  }
+
+  /**
+   * Busca o saldo sem travar o servidor e redesenha a tela se ela ainda estiver aberta
+   */
+  private void refreshBalance(final Player player, final ConfirmationData data) {
+    if (!data.isBuying || plugin.getEconomyService().getCachedBalance(player) != null) {
+      return;
+    }
+
+    plugin.getEconomyService().getBalanceAsync(player, balance -> {
+      if (player.isOnline() && plugin.getSessionManager().get(player).get(CONFIRMATION_DATA) == data
+          && ShopInventoryHolder.getType(player.getOpenInventory().getTopInventory())
+              == ShopInventoryHolder.GuiType.CONFIRMATION) {
+        render(player, data, balance);
+      }
+    });
   }
 
   public void handleClick(Player player, int slot, boolean isShiftClick) {
@@ -139,7 +170,7 @@ public class ConfirmationGUI {
         return;
     }
 
-    ConfirmationData data = playerData.get(player.getUniqueId());
+    ConfirmationData data = plugin.getSessionManager().get(player).get(CONFIRMATION_DATA);
     if (data == null) {
         player.closeInventory();
         return;
@@ -162,6 +193,9 @@ public class ConfirmationGUI {
         data.quantity = Math.min(maxQuantity, data.quantity + increase);
         updateQuantity(player, data);
     } else if (slot == 41) { // Botão de confirmar (movido para o slot do antigo botão de informações)
+        // Preço cobrado, calculado antes que a transação altere a demanda
+        double totalPrice = plugin.getShopManager().calculatePrice(player, data.item, data.quantity, data.isBuying);
+        double unitPrice = totalPrice / data.quantity;
         if (data.isBuying) {
             if (plugin.getShopManager().processPurchase(player, data.item, data.quantity)) {
                 // Registra a transação no histórico
@@ -169,7 +203,7 @@ public class ConfirmationGUI {
                     player.getName(),
                     data.item,
                     data.quantity,
-                    data.item.getBuyPrice(),
+                    unitPrice,
                     Transaction.TransactionType.BUY,
                     new Timestamp(System.currentTimeMillis())
                 );
@@ -184,7 +218,7 @@ public class ConfirmationGUI {
                     .replace("{quantity}", String.valueOf(data.quantity))
                     .replace("{item}", data.item.getName())
                     .replace("{currency}", currencySymbol)
-                    .replace("{price}", String.format("%.2f", data.item.getBuyPrice() * data.quantity))));
+                    .replace("{price}", String.format("%.2f", totalPrice))));
             }
         } else {
             if (plugin.getShopManager().processSale(player, data.item, data.quantity)) {
@@ -193,7 +227,7 @@ public class ConfirmationGUI {
                     player.getName(),
                     data.item,
                     data.quantity,
-                    data.item.getSellPrice(),
+                    unitPrice,
                     Transaction.TransactionType.SELL,
                     new Timestamp(System.currentTimeMillis())
                 );
@@ -208,40 +242,45 @@ public class ConfirmationGUI {
                     .replace("{quantity}", String.valueOf(data.quantity))
                     .replace("{item}", data.item.getName())
                     .replace("{currency}", currencySymbol)
-                    .replace("{price}", String.format("%.2f", data.item.getSellPrice() * data.quantity))));
+                    .replace("{price}", String.format("%.2f", totalPrice))));
             }
         }
         player.closeInventory();
-        playerData.remove(player.getUniqueId());
+        plugin.getSessionManager().get(player).remove(CONFIRMATION_DATA);
     } else if (slot == 39) { // Botão de cancelar
         player.closeInventory();
-        playerData.remove(player.getUniqueId());
+        plugin.getSessionManager().get(player).remove(CONFIRMATION_DATA);
         player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getMessage("transaction_cancelled",
             "&cTransação cancelada.")));
     }
   }
 
   private void updateQuantity(Player player, ConfirmationData data) {
+    render(player, data, plugin.getEconomyService().getCachedBalance(player));
+    refreshBalance(player, data);
+  }
+
+  private void render(Player player, ConfirmationData data, Double playerBalance) {
     Inventory inv = player.getOpenInventory().getTopInventory();
     String currencySymbol = plugin.getConfigLoader().getCurrencySymbol();
 
     // Atualiza item central
-    ItemStack displayItem = data.item.createDisplayItem(currencySymbol);
+    ShopManager shopManager = plugin.getShopManager();
+    double pricePerUnit = shopManager.getUnitPrice(data.item, data.isBuying);
+    ItemStack displayItem = data.item.createDisplayItem(currencySymbol,
+        shopManager.getUnitPrice(data.item, true), shopManager.getUnitPrice(data.item, false));
     displayItem.setAmount(Math.min(64, data.quantity)); // Define a quantidade visual do item (máximo 64)
     ItemMeta meta = displayItem.getItemMeta();
     List<String> lore = new ArrayList<>();
     lore.add("");
     lore.add(TextUtils.colorize("&fDetalhes da " + (data.isBuying ? "compra" : "venda") + ":"));
     lore.add(TextUtils.colorize("&7➥ Quantidade: &f" + data.quantity));
-    double pricePerUnit = data.isBuying ? data.item.getBuyPrice() : data.item.getSellPrice();
-    double totalPrice = pricePerUnit * data.quantity;
+    double totalPrice = shopManager.calculatePrice(player, data.item, data.quantity, data.isBuying);
     lore.add(TextUtils.colorize("&7➥ Preço unitário: &f" + currencySymbol + String.format("%.2f", pricePerUnit)));
     lore.add(TextUtils.colorize("&7➥ Total: &f" + currencySymbol + String.format("%.2f", totalPrice)));
     lore.add("");
     if (data.isBuying) {
-      double playerBalance = plugin.getEconomyService().getBalance(player);
-      lore.add(TextUtils.colorize("&7Seu saldo: &f" + currencySymbol + String.format("%.2f", playerBalance)));
-      lore.add(TextUtils.colorize("&7Saldo após compra: &f" + currencySymbol + String.format("%.2f", playerBalance - totalPrice)));
+      addBalanceLore(lore, playerBalance, totalPrice, currencySymbol);
     }
     meta.setLore(lore);
     displayItem.setItemMeta(meta);
@@ -257,16 +296,12 @@ public class ConfirmationGUI {
     confirmButton.setItemMeta(confirmMeta);
   }
 
-  public void cleanup() {
-    playerData.clear();
-  }
-
   /**
    * Remove os dados de um jogador
    * @param player Jogador para remover os dados
    */
   public void removePlayerData(Player player) {
-    playerData.remove(player.getUniqueId());
+    plugin.getSessionManager().get(player).remove(CONFIRMATION_DATA);
   }
 
   private ItemStack createConfirmButton() {
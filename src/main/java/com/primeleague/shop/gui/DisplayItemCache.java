@@ -0,0 +1,189 @@
+package com.primeleague.shop.gui;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.MarketState;
+import com.primeleague.shop.models.ShopCategory;
+import com.primeleague.shop.models.ShopItem;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache das páginas de categoria já renderizadas
+ *
+ * Cada página é montada uma vez (ícones, lore, preenchimento e botões) e
+ * reaproveitada por todos os jogadores. O cache inteiro é descartado quando
+ * o catálogo é recarregado, quando o símbolo da moeda muda ou quando o
+ * intervalo de cache.refresh-interval expira. Uma negociação só refaz as
+ * páginas que exibem o item negociado.
+ *
+ * O decaimento da demanda não altera a versão do item, então o preço
+ * exibido pode ficar desatualizado por até cache.refresh-interval (300s por
+ * padrão) quando não há negociações.
+ *
+ * Acessado apenas pela thread principal.
+ */
+public class DisplayItemCache {
+
+  private final PrimeLeagueShopPlugin plugin;
+  private final Map<String, CategoryPage> pages;
+  private final long refreshIntervalMs;
+  private final boolean enabled;
+
+  private long catalogVersion = -1L;
+  private String currencySymbol;
+  private long renderedAt;
+
+  /**
+   * Página de categoria pronta para ser aplicada a um inventário
+   */
+  public static class CategoryPage {
+    private final String title;
+    private final ItemStack[] contents;
+    private final ShopItem[] slotItems;
+    private final boolean nextPage;
+    private long[] priceVersions;
+
+    public CategoryPage(String title, ItemStack[] contents, ShopItem[] slotItems, boolean nextPage) {
+      this.title = title;
+      this.contents = contents;
+      this.slotItems = slotItems;
+      this.nextPage = nextPage;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    public int getSize() {
+      return contents.length;
+    }
+
+    /**
+     * Item da loja exibido em um slot, ou null
+     */
+    public ShopItem getItem(int slot) {
+      return slot >= 0 && slot < slotItems.length ? slotItems[slot] : null;
+    }
+
+    /**
+     * Itens por slot, compartilhados entre jogadores; não alterar
+     */
+    ShopItem[] getSlotItems() {
+      return slotItems;
+    }
+
+    public boolean hasNextPage() {
+      return nextPage;
+    }
+
+    /**
+     * Guarda a versão de mercado de cada item exibido
+     */
+    void recordPriceVersions() {
+      long[] versions = new long[slotItems.length];
+      for (int i = 0; i < slotItems.length; i++) {
+        versions[i] = priceVersionOf(slotItems[i]);
+      }
+      priceVersions = versions;
+    }
+
+    /**
+     * Se algum item exibido foi negociado desde a renderização
+     */
+    boolean pricesChanged() {
+      for (int i = 0; i < slotItems.length; i++) {
+        if (priceVersionOf(slotItems[i]) != priceVersions[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static long priceVersionOf(ShopItem item) {
+      MarketState state = item != null ? item.getMarketState() : null;
+      return state != null ? state.getVersion() : 0L;
+    }
+
+    /**
+     * Copia a página para o inventário
+     *
+     * O servidor copia cada ItemStack ao colocá-lo no inventário, então o
+     * modelo em cache nunca é alterado pelos jogadores.
+     */
+    public void applyTo(Inventory inventory) {
+      inventory.setContents(contents.clone());
+    }
+  }
+
+  /**
+   * Monta uma página quando ela não está no cache
+   */
+  public interface PageRenderer {
+    CategoryPage render(ShopCategory category, int page);
+  }
+
+  public DisplayItemCache(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+    this.pages = new HashMap<>();
+    this.enabled = plugin.getConfig().getBoolean("cache.enabled", true);
+    this.refreshIntervalMs = TimeUnit.SECONDS.toMillis(
+        plugin.getConfig().getLong("cache.refresh-interval", 300));
+  }
+
+  /**
+   * Obtém uma página do cache, renderizando-a se necessário
+   *
+   * @param category Categoria
+   * @param page     Página
+   * @param renderer Usado para montar a página quando não está no cache
+   * @return Página pronta
+   */
+  public CategoryPage getPage(ShopCategory category, int page, PageRenderer renderer) {
+    if (!enabled) {
+      return renderer.render(category, page);
+    }
+
+    validate();
+
+    String key = category.getName() + '#' + page;
+    CategoryPage cached = pages.get(key);
+    if (cached == null || cached.pricesChanged()) {
+      // As negociações também rodam na thread principal, então nada muda durante a renderização
+      cached = renderer.render(category, page);
+      cached.recordPriceVersions();
+      pages.put(key, cached);
+    }
+    return cached;
+  }
+
+  /**
+   * Descarta todas as páginas renderizadas
+   */
+  public void invalidate() {
+    pages.clear();
+    catalogVersion = -1L;
+  }
+
+  /**
+   * Descarta o cache se algo que aparece nas páginas mudou
+   */
+  private void validate() {
+    long currentCatalog = plugin.getShopManager().getCatalog().getVersion();
+    String currentCurrency = plugin.getConfigLoader().getCurrencySymbol();
+    long now = System.currentTimeMillis();
+
+    boolean expired = refreshIntervalMs > 0 && now - renderedAt > refreshIntervalMs;
+    if (expired
+        || currentCatalog != catalogVersion
+        || !currentCurrency.equals(currencySymbol)) {
+      pages.clear();
+      catalogVersion = currentCatalog;
+      currencySymbol = currentCurrency;
+      renderedAt = now;
+    }
+  }
+}
@@ -2,7 +2,6 @@ package com.primeleague.shop.gui;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.models.ShopItem;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -20,14 +19,14 @@ public class FavoritesGUI {
   }
 
   public void openFavoritesGUI(Player player) {
-    Inventory inventory = Bukkit.createInventory(null, rows * 9, title);
+    Inventory inventory = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.FAVORITES, rows * 9, title);
     List<String> favorites = plugin.getPreferencesManager().getFavorites(player.getName());
 
     int slot = 0;
     for (String itemId : favorites) {
       ShopItem shopItem = plugin.getShopManager().getItemById(itemId);
       if (shopItem != null) {
-        ItemStack displayItem = shopItem.createDisplayItem("§7Compra: §e$");
+        ItemStack displayItem = plugin.getShopManager().createDisplayItem(shopItem, "§7Compra: §e$");
         inventory.setItem(slot++, displayItem);
       }
     }
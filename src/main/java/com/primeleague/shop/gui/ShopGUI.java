@@ -3,10 +3,10 @@ package com.primeleague.shop.gui;
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.models.ShopCategory;
 import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.session.SessionKey;
 import com.primeleague.shop.utils.ItemUtils;
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.TextUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -21,18 +21,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Cria e gerencia a GUI principal da loja
  */
 public class ShopGUI {
 
+  // Pesquisa atual e favoritos, guardados na sessão do jogador
+  private static final SessionKey<String> SEARCH_QUERY = SessionKey.create("search-query");
+  private static final SessionKey<List<String>> FAVORITES = SessionKey.create("favorites");
+
   private final String title = "Loja Prime";
   private final PrimeLeagueShopPlugin plugin;
-  private final Map<Integer, ShopCategory> slotMap;
-  private final Map<UUID, String> searchQuery;
-  private final Map<UUID, List<String>> favorites;
+  private MainMenuTemplate template;
 
   // Slots para elementos especiais
   private static final int SEARCH_SLOT = 4;
@@ -40,6 +41,21 @@ public class ShopGUI {
   private static final int CART_SLOT = 46;
   private static final int HISTORY_SLOT = 47;
   private static final int FAVORITES_SLOT = 48;
+  private static final int MENU_SIZE = 54;
+
+  // Organiza as categorias em slots específicos
+  private static final Map<String, Integer> CATEGORY_SLOTS = new HashMap<>();
+
+  static {
+    CATEGORY_SLOTS.put("Combate", 10);      // Primeira linha - Itens de combate
+    CATEGORY_SLOTS.put("Blocos", 11);       // Blocos de construção
+    CATEGORY_SLOTS.put("Minérios", 12);     // Minérios e seus blocos
+    CATEGORY_SLOTS.put("Ferramentas", 13);  // Todas as ferramentas
+    CATEGORY_SLOTS.put("Alimentos", 14);    // Comidas e alimentos
+    CATEGORY_SLOTS.put("Poções", 15);       // Todas as poções
+    CATEGORY_SLOTS.put("Ovos", 16);         // Ovos de spawn
+    CATEGORY_SLOTS.put("Livros", 22);       // Livros encantados (centro da segunda linha)
+  }
 
   // Constantes de log
   private static final String LOG_CLICK = "Menu principal: Clique no slot %d, categoria=%s";
@@ -52,9 +68,27 @@ public class ShopGUI {
    */
   public ShopGUI(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.slotMap = new HashMap<>();
-    this.searchQuery = new HashMap<>();
-    this.favorites = new HashMap<>();
+  }
+
+  /**
+   * Camada estática do menu principal, compartilhada entre os jogadores
+   */
+  private static class MainMenuTemplate {
+    private final long catalogVersion;
+    private final String title;
+    private final ItemStack[] contents;
+    private final ShopCategory[] slotCategories;
+
+    MainMenuTemplate(long catalogVersion, String title, ItemStack[] contents, ShopCategory[] slotCategories) {
+      this.catalogVersion = catalogVersion;
+      this.title = title;
+      this.contents = contents;
+      this.slotCategories = slotCategories;
+    }
+
+    ShopCategory getCategory(int slot) {
+      return slot >= 0 && slot < slotCategories.length ? slotCategories[slot] : null;
+    }
   }
 
   /**
@@ -63,114 +97,117 @@ public class ShopGUI {
    * @param player Jogador
    */
   public void openMainMenu(Player player) {
-    slotMap.clear();
+    MainMenuTemplate menu = getTemplate();
 
-    String title = plugin.getConfigLoader().getMessage("gui.main_shop_title", "&8Loja Prime League");
-    Inventory inv = Bukkit.createInventory(null, 54, TextUtils.colorize(title));
+    Inventory inv = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.MAIN_MENU, MENU_SIZE, menu.title);
+    // O servidor copia cada ItemStack, então o modelo não é alterado
+    inv.setContents(menu.contents.clone());
 
-    // Adiciona barra de pesquisa
-    ItemStack searchBar = createSearchBar(player);
-    inv.setItem(SEARCH_SLOT, searchBar);
+    // Sobrepõe apenas os slots que dependem do jogador
+    inv.setItem(SEARCH_SLOT, createSearchBar(player));
+    inv.setItem(BALANCE_SLOT, createBalanceItem(plugin.getEconomyService().getCachedBalance(player)));
+    inv.setItem(FAVORITES_SLOT, createFavoritesButton(player));
 
-    // Adiciona saldo do jogador
-    ItemStack balance = createBalanceItem(player);
-    inv.setItem(BALANCE_SLOT, balance);
+    player.openInventory(inv);
+    refreshBalance(player, inv);
+    String message = plugin.getConfigLoader().getMessage("shop_opened", "&aVocê abriu a loja!");
+    player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() + message));
+  }
 
-    // Adiciona botão do carrinho
-    ItemStack cart = createCartButton(player);
-    inv.setItem(CART_SLOT, cart);
+  /**
+   * Obtém o modelo do menu, remontando-o se o catálogo mudou
+   */
+  private MainMenuTemplate getTemplate() {
+    long catalogVersion = plugin.getShopManager().getCatalog().getVersion();
+    MainMenuTemplate current = template;
+    if (current == null || current.catalogVersion != catalogVersion) {
+      current = renderTemplate(catalogVersion);
+      template = current;
+    }
+    return current;
+  }
 
-    // Adiciona botão de histórico
-    ItemStack history = createHistoryButton();
-    inv.setItem(HISTORY_SLOT, history);
+  private MainMenuTemplate renderTemplate(long catalogVersion) {
+    String title = plugin.getConfigLoader().getMessage("gui.main_shop_title", "&8Loja Prime League");
+    ItemStack[] contents = new ItemStack[MENU_SIZE];
+    ShopCategory[] slotCategories = new ShopCategory[MENU_SIZE];
 
-    // Adiciona botão de favoritos
-    ItemStack favoritesButton = createFavoritesButton(player);
-    inv.setItem(FAVORITES_SLOT, favoritesButton);
+    // Botões que não dependem do jogador
+    contents[CART_SLOT] = createCartButton();
+    contents[HISTORY_SLOT] = createHistoryButton();
 
     // Preenche slots vazios com vidro decorativo
     ItemStack filler = createFillerGlass();
-    for (int i = 0; i < inv.getSize(); i++) {
-      if (inv.getItem(i) == null) {
-        inv.setItem(i, filler);
+    for (int i = 0; i < MENU_SIZE; i++) {
+      if (contents[i] == null) {
+        contents[i] = filler;
       }
     }
 
-    List<ShopCategory> categories = plugin.getShopManager().getCategories();
-
-    // Organiza as categorias em slots específicos
-    Map<String, Integer> categorySlots = new HashMap<>();
-    categorySlots.put("Combate", 10);      // Primeira linha - Itens de combate
-    categorySlots.put("Blocos", 11);       // Blocos de construção
-    categorySlots.put("Minérios", 12);     // Minérios e seus blocos
-    categorySlots.put("Ferramentas", 13);  // Todas as ferramentas
-    categorySlots.put("Alimentos", 14);    // Comidas e alimentos
-    categorySlots.put("Poções", 15);       // Todas as poções
-    categorySlots.put("Ovos", 16);         // Ovos de spawn
-    categorySlots.put("Livros", 22);       // Livros encantados (centro da segunda linha)
-
     // Adiciona as categorias nos slots definidos
-    for (ShopCategory category : categories) {
-      Integer slot = categorySlots.get(category.getName());
+    for (ShopCategory category : plugin.getShopManager().getCategories()) {
+      Integer slot = CATEGORY_SLOTS.get(category.getName());
       if (slot != null) {
-        ItemStack icon = category.getIcon();
-        ItemMeta meta = icon.getItemMeta();
-        meta.setDisplayName(TextUtils.colorize("&a" + category.getName()));
-
-        List<String> lore = new ArrayList<>();
-        lore.add(TextUtils.colorize("&7Clique para ver os itens"));
-        lore.add(TextUtils.colorize("&7desta categoria"));
-        lore.add("");
-
-        // Adiciona descrição específica para cada categoria
-        switch(category.getName()) {
-          case "Combate":
-            lore.add(TextUtils.colorize("&7• Espadas, Arcos, Armaduras"));
-            lore.add(TextUtils.colorize("&7• Escudos, Flechas"));
-            break;
-          case "Blocos":
-            lore.add(TextUtils.colorize("&7• Blocos de Construção"));
-            lore.add(TextUtils.colorize("&7• Decorativos"));
-            break;
-          case "Minérios":
-            lore.add(TextUtils.colorize("&7• Minérios Brutos"));
-            lore.add(TextUtils.colorize("&7• Blocos de Minérios"));
-            break;
-          case "Ferramentas":
-            lore.add(TextUtils.colorize("&7• Picaretas, Pás, Machados"));
-            lore.add(TextUtils.colorize("&7• Enxadas, Tesouras"));
-            break;
-          case "Alimentos":
-            lore.add(TextUtils.colorize("&7• Carnes, Vegetais"));
-            lore.add(TextUtils.colorize("&7• Alimentos Cozidos"));
-            break;
-          case "Poções":
-            lore.add(TextUtils.colorize("&7• Poções de Efeito"));
-            lore.add(TextUtils.colorize("&7• Ingredientes"));
-            break;
-          case "Ovos":
-            lore.add(TextUtils.colorize("&7• Ovos de Spawn"));
-            lore.add(TextUtils.colorize("&7• Geradores"));
-            break;
-          case "Livros":
-            lore.add(TextUtils.colorize("&7• Livros Encantados"));
-            lore.add(TextUtils.colorize("&7• Encantamentos"));
-            break;
-        }
-
-        lore.add("");
-        lore.add(TextUtils.colorize("&7Total de itens: &f" + category.getItems().size()));
-        meta.setLore(lore);
-
-        icon.setItemMeta(meta);
-        inv.setItem(slot, icon);
-        slotMap.put(slot, category);
+        contents[slot] = createCategoryIcon(category);
+        slotCategories[slot] = category;
       }
     }
 
-    player.openInventory(inv);
-    String message = plugin.getConfigLoader().getMessage("shop_opened", "&aVocê abriu a loja!");
-    player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() + message));
+    return new MainMenuTemplate(catalogVersion, TextUtils.colorize(title), contents, slotCategories);
+  }
+
+  private ItemStack createCategoryIcon(ShopCategory category) {
+    ItemStack icon = category.getIcon();
+    ItemMeta meta = icon.getItemMeta();
+    meta.setDisplayName(TextUtils.colorize("&a" + category.getName()));
+
+    List<String> lore = new ArrayList<>();
+    lore.add(TextUtils.colorize("&7Clique para ver os itens"));
+    lore.add(TextUtils.colorize("&7desta categoria"));
+    lore.add("");
+
+    // Adiciona descrição específica para cada categoria
+    switch(category.getName()) {
+      case "Combate":
+        lore.add(TextUtils.colorize("&7• Espadas, Arcos, Armaduras"));
+        lore.add(TextUtils.colorize("&7• Escudos, Flechas"));
+        break;
+      case "Blocos":
+        lore.add(TextUtils.colorize("&7• Blocos de Construção"));
+        lore.add(TextUtils.colorize("&7• Decorativos"));
+        break;
+      case "Minérios":
+        lore.add(TextUtils.colorize("&7• Minérios Brutos"));
+        lore.add(TextUtils.colorize("&7• Blocos de Minérios"));
+        break;
+      case "Ferramentas":
+        lore.add(TextUtils.colorize("&7• Picaretas, Pás, Machados"));
+        lore.add(TextUtils.colorize("&7• Enxadas, Tesouras"));
+        break;
+      case "Alimentos":
+        lore.add(TextUtils.colorize("&7• Carnes, Vegetais"));
+        lore.add(TextUtils.colorize("&7• Alimentos Cozidos"));
+        break;
+      case "Poções":
+        lore.add(TextUtils.colorize("&7• Poções de Efeito"));
+        lore.add(TextUtils.colorize("&7• Ingredientes"));
+        break;
+      case "Ovos":
+        lore.add(TextUtils.colorize("&7• Ovos de Spawn"));
+        lore.add(TextUtils.colorize("&7• Geradores"));
+        break;
+      case "Livros":
+        lore.add(TextUtils.colorize("&7• Livros Encantados"));
+        lore.add(TextUtils.colorize("&7• Encantamentos"));
+        break;
+    }
+
+    lore.add("");
+    lore.add(TextUtils.colorize("&7Total de itens: &f" + category.getItems().size()));
+    meta.setLore(lore);
+
+    icon.setItemMeta(meta);
+    return icon;
   }
 
   private ItemStack createSearchBar(Player player) {
@@ -179,7 +216,7 @@ public class ShopGUI {
     meta.setDisplayName(TextUtils.colorize("&ePesquisar Itens"));
 
     List<String> lore = new ArrayList<>();
-    String currentSearch = searchQuery.get(player.getUniqueId());
+    String currentSearch = plugin.getSessionManager().get(player).get(SEARCH_QUERY);
     if (currentSearch != null && !currentSearch.isEmpty()) {
       lore.add(TextUtils.colorize("&7Pesquisa atual: &f" + currentSearch));
     }
@@ -189,20 +226,41 @@ public class ShopGUI {
     return search;
   }
 
-  private ItemStack createBalanceItem(Player player) {
+  /**
+   * Busca o saldo sem travar o servidor e atualiza o ícone se o menu ainda estiver aberto
+   */
+  private void refreshBalance(final Player player, final Inventory inv) {
+    if (plugin.getEconomyService().getCachedBalance(player) != null) {
+      return;
+    }
+
+    plugin.getEconomyService().getBalanceAsync(player, balance -> {
+      if (player.isOnline() && player.getOpenInventory().getTopInventory().equals(inv)) {
+        inv.setItem(BALANCE_SLOT, createBalanceItem(balance));
+      }
+    });
+  }
+
+  /**
+   * @param playerBalance Saldo, ou null enquanto está sendo consultado
+   */
+  private ItemStack createBalanceItem(Double playerBalance) {
     ItemStack balance = new ItemStack(Material.EMERALD);
     ItemMeta meta = balance.getItemMeta();
     meta.setDisplayName(TextUtils.colorize("&aSeu Saldo"));
 
     List<String> lore = new ArrayList<>();
-    double playerBalance = plugin.getEconomy().getBalance(player.getName());
-    lore.add(TextUtils.colorize("&7Saldo: &a$" + String.format("%.2f", playerBalance)));
+    if (playerBalance != null) {
+      lore.add(TextUtils.colorize("&7Saldo: &a$" + String.format("%.2f", playerBalance)));
+    } else {
+      lore.add(TextUtils.colorize("&7Saldo: &fcarregando..."));
+    }
     meta.setLore(lore);
     balance.setItemMeta(meta);
     return balance;
   }
 
-  private ItemStack createCartButton(Player player) {
+  private ItemStack createCartButton() {
     ItemStack cart = new ItemStack(Material.CHEST);
     ItemMeta meta = cart.getItemMeta();
     meta.setDisplayName(TextUtils.colorize("&6Carrinho"));
@@ -232,7 +290,7 @@ public class ShopGUI {
     meta.setDisplayName(TextUtils.colorize("&bFavoritos"));
 
     List<String> lore = new ArrayList<>();
-    List<String> playerFavorites = this.favorites.get(player.getUniqueId());
+    List<String> playerFavorites = plugin.getSessionManager().get(player).get(FAVORITES);
     if (playerFavorites != null && !playerFavorites.isEmpty()) {
       lore.add(TextUtils.colorize("&7Você tem &b" + playerFavorites.size() + "&7 itens favoritos"));
     } else {
@@ -261,9 +319,8 @@ public class ShopGUI {
    */
   public boolean handleClick(Player player, int slot) {
     // Verifica se o slot contém uma categoria
-    if (slotMap.containsKey(slot)) {
-      ShopCategory category = slotMap.get(slot);
-
+    ShopCategory category = getTemplate().getCategory(slot);
+    if (category != null) {
       // Verifica permissão
       if (!category.getPermission().isEmpty() && !player.hasPermission(category.getPermission())) {
         player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getPrefix() +
@@ -340,22 +397,15 @@ public class ShopGUI {
         return;
       }
 
-      searchQuery.put(player.getUniqueId(), input);
+      plugin.getSessionManager().get(player).set(SEARCH_QUERY, input);
       openSearchResults(player, input);
     });
   }
 
   private void openSearchResults(Player player, String query) {
-    Inventory inv = Bukkit.createInventory(null, 54, TextUtils.colorize("&8Resultados da Pesquisa"));
+    Inventory inv = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.SEARCH, 54, TextUtils.colorize("&8Resultados da Pesquisa"));
 
-    List<ShopItem> results = new ArrayList<>();
-    for (ShopCategory category : plugin.getShopManager().getCategories()) {
-      for (ShopItem item : category.getItems()) {
-        if (item.getName().toLowerCase().contains(query.toLowerCase())) {
-          results.add(item);
-        }
-      }
-    }
+    List<ShopItem> results = plugin.getShopManager().getCatalog().search(query);
 
     // Adiciona barra de pesquisa com termo atual
     inv.setItem(SEARCH_SLOT, createSearchBar(player));
@@ -364,7 +414,7 @@ public class ShopGUI {
     int slot = 10;
     for (ShopItem item : results) {
       if (slot > 43) break;
-      inv.setItem(slot, item.createDisplayItem(plugin.getConfigLoader().getCurrencySymbol()));
+      inv.setItem(slot, plugin.getShopManager().createDisplayItem(item, plugin.getConfigLoader().getCurrencySymbol()));
       slot += (slot % 9 == 7) ? 3 : 1;
     }
 
@@ -382,7 +432,7 @@ public class ShopGUI {
     String itemId = getItemId(item);
     if (itemId == null) return;
 
-    List<String> playerFavorites = favorites.computeIfAbsent(player.getUniqueId(), k -> new ArrayList<>());
+    List<String> playerFavorites = plugin.getSessionManager().get(player).computeIfAbsent(FAVORITES, ArrayList::new);
 
     if (playerFavorites.contains(itemId)) {
       playerFavorites.remove(itemId);
@@ -397,8 +447,8 @@ public class ShopGUI {
   }
 
   private void openFavorites(Player player) {
-    Inventory inv = Bukkit.createInventory(null, 54, TextUtils.colorize("&8Seus Favoritos"));
-    List<String> playerFavorites = favorites.get(player.getUniqueId());
+    Inventory inv = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.FAVORITES, 54, TextUtils.colorize("&8Seus Favoritos"));
+    List<String> playerFavorites = plugin.getSessionManager().get(player).get(FAVORITES);
 
     if (playerFavorites == null || playerFavorites.isEmpty()) {
       player.sendMessage(TextUtils.colorize("&cVocê não tem itens favoritos!"));
@@ -409,7 +459,7 @@ public class ShopGUI {
     for (String itemId : playerFavorites) {
       ShopItem item = plugin.getShopManager().getItemById(itemId);
       if (item != null) {
-        inv.setItem(slot, item.createDisplayItem(plugin.getConfigLoader().getCurrencySymbol()));
+        inv.setItem(slot, plugin.getShopManager().createDisplayItem(item, plugin.getConfigLoader().getCurrencySymbol()));
         slot += (slot % 9 == 7) ? 3 : 1;
       }
     }
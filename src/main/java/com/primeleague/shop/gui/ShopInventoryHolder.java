@@ -0,0 +1,70 @@
+package com.primeleague.shop.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * Dono dos inventários abertos pela loja
+ *
+ * Identifica o tipo de GUI pelo próprio inventário, sem depender do título,
+ * então os listeners reconhecem uma GUI da loja com um único instanceof.
+ */
+public class ShopInventoryHolder implements InventoryHolder {
+
+  /**
+   * Tipos de GUI da loja
+   */
+  public enum GuiType {
+    MAIN_MENU,
+    CATEGORY,
+    CONFIRMATION,
+    SEARCH,
+    FAVORITES,
+    HISTORY
+  }
+
+  private final GuiType type;
+  private Inventory inventory;
+
+  private ShopInventoryHolder(GuiType type) {
+    this.type = type;
+  }
+
+  /**
+   * Cria um inventário marcado como GUI da loja
+   *
+   * @param type  Tipo da GUI
+   * @param size  Tamanho do inventário
+   * @param title Título já colorizado
+   * @return Inventário criado
+   */
+  public static Inventory createInventory(GuiType type, int size, String title) {
+    ShopInventoryHolder holder = new ShopInventoryHolder(type);
+    holder.inventory = Bukkit.createInventory(holder, size, title);
+    return holder.inventory;
+  }
+
+  /**
+   * Obtém o tipo de GUI de um inventário
+   *
+   * @param inventory Inventário a verificar
+   * @return Tipo da GUI ou null se não for da loja
+   */
+  public static GuiType getType(Inventory inventory) {
+    if (inventory == null) {
+      return null;
+    }
+    InventoryHolder holder = inventory.getHolder();
+    return holder instanceof ShopInventoryHolder ? ((ShopInventoryHolder) holder).type : null;
+  }
+
+  public GuiType getType() {
+    return type;
+  }
+
+  @Override
+  public Inventory getInventory() {
+    return inventory;
+  }
+}
@@ -1,6 +1,8 @@
 package com.primeleague.shop.listeners;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.combat.CombatManager;
+import com.primeleague.shop.gui.ShopInventoryHolder;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
@@ -36,8 +38,19 @@ public class CombatListener implements Listener {
 
     // Se encontrou um atacante válido, marca ambos em combate
     if (attacker != null && attacker != victim) {
-      plugin.getCombatManager().tagPlayer(victim);
-      plugin.getCombatManager().tagPlayer(attacker);
+      tag(victim);
+      tag(attacker);
+    }
+  }
+
+  private void tag(Player player) {
+    CombatManager combatManager = plugin.getCombatManager();
+    combatManager.tagPlayer(player);
+
+    // Fecha a loja de quem foi pego com ela aberta
+    if (combatManager.isGuiBlocked(player)
+        && ShopInventoryHolder.getType(player.getOpenInventory().getTopInventory()) != null) {
+      player.closeInventory();
     }
   }
 }
@@ -17,13 +17,6 @@ public class PlayerListener implements Listener {
     String playerName = event.getPlayer().getName();
 
     // Limpa caches do jogador
-    plugin.getShopManager().cleanupPlayerData(playerName);
     plugin.getPreferencesManager().cleanupPlayerData(playerName);
-
-    // Agenda limpeza completa para próximo ciclo
-    plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-      plugin.getShopManager().runCacheCleanup();
-      plugin.getPreferencesManager().runCacheCleanup();
-    }, 100L); // 5 segundos depois
   }
 }
@@ -0,0 +1,41 @@
+package com.primeleague.shop.listeners;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/**
+ * Abre a sessão do jogador na entrada e a libera na saída
+ */
+public class SessionListener implements Listener {
+  private final PrimeLeagueShopPlugin plugin;
+
+  public SessionListener(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  @EventHandler(priority = EventPriority.LOWEST)
+  public void onPlayerJoin(PlayerJoinEvent event) {
+    plugin.getSessionManager().open(event.getPlayer());
+  }
+
+  // Por último, para que os outros listeners ainda vejam a sessão na saída
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    plugin.getSessionManager().close(event.getPlayer());
+
+    // No tick seguinte o jogador já não conta como online
+    final UUID uniqueId = event.getPlayer().getUniqueId();
+    plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+      @Override
+      public void run() {
+        plugin.getSessionManager().release(uniqueId);
+      }
+    });
+  }
+}
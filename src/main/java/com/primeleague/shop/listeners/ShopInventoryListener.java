@@ -4,7 +4,9 @@ import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.gui.CategoryGUI;
 import com.primeleague.shop.gui.ConfirmationGUI;
 import com.primeleague.shop.gui.ShopGUI;
-import com.primeleague.shop.utils.TextUtils;
+import com.primeleague.shop.gui.ShopInventoryHolder;
+import com.primeleague.shop.gui.ShopInventoryHolder.GuiType;
+import com.primeleague.shop.models.ShopAction;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -13,17 +15,31 @@ import org.bukkit.event.inventory.*;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Listener para eventos de inventário relacionados à loja
+ *
+ * As GUIs da loja são reconhecidas pelo dono do inventário
+ * ({@link ShopInventoryHolder}); cliques em outros inventários saem logo
+ * na primeira verificação.
  */
 public class ShopInventoryListener implements Listener {
 
   private final PrimeLeagueShopPlugin plugin;
-  private final ShopGUI shopGUI;
   private final CategoryGUI categoryGUI;
   private final ConfirmationGUI confirmationGUI;
+  private final Map<GuiType, ClickHandler> clickHandlers;
   private boolean isChangingInventory = false;
 
+  /**
+   * Trata um clique no inventário superior de uma GUI
+   */
+  private interface ClickHandler {
+    void handle(Player player, int slot, InventoryClickEvent event);
+  }
+
   /**
    * Cria um novo listener
    *
@@ -31,9 +47,18 @@ public class ShopInventoryListener implements Listener {
    */
   public ShopInventoryListener(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.shopGUI = plugin.getShopGUI();
     this.categoryGUI = plugin.getCategoryGUI();
     this.confirmationGUI = plugin.getConfirmationGUI();
+    this.clickHandlers = new EnumMap<>(GuiType.class);
+
+    final ShopGUI shopGUI = plugin.getShopGUI();
+    clickHandlers.put(GuiType.MAIN_MENU, (player, slot, event) ->
+        shopGUI.handleClick(player, slot));
+    clickHandlers.put(GuiType.CATEGORY, (player, slot, event) ->
+        categoryGUI.handleClick(player, slot, event.isLeftClick(), event.isShiftClick()));
+    clickHandlers.put(GuiType.CONFIRMATION, (player, slot, event) ->
+        confirmationGUI.handleClick(player, slot, event.isShiftClick()));
+    // Pesquisa, favoritos e histórico são apenas para visualização
   }
 
   /**
@@ -43,74 +68,36 @@ public class ShopInventoryListener implements Listener {
    */
   @EventHandler(priority = EventPriority.HIGH)
   public void onInventoryClick(InventoryClickEvent event) {
-    if (!(event.getWhoClicked() instanceof Player)) {
+    Inventory top = event.getView().getTopInventory();
+    GuiType type = ShopInventoryHolder.getType(top);
+    if (type == null || !(event.getWhoClicked() instanceof Player)) {
       return;
     }
 
-    Player player = (Player) event.getWhoClicked();
-    String title = event.getView().getTitle();
-    Inventory clickedInventory = event.getInventory();
-
-    // Debug log
-    plugin.getLogger().info("Processando clique de inventário para " + player.getName() + " em " + title);
-
-    // Verifica se as GUIs foram inicializadas
-    if (shopGUI == null || categoryGUI == null || confirmationGUI == null) {
-      plugin.getLogger().severe("Uma ou mais GUIs não foram inicializadas corretamente!");
-      event.setCancelled(true);
-      return;
-    }
-
-    // Proteção para GUI de confirmação
-    if (title.equals(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.confirm_buy_title", "&8Confirmar Compra"))) ||
-        title.equals(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.confirm_sell_title", "&8Confirmar Venda")))) {
-      event.setCancelled(true);
+    // Cancela QUALQUER interação quando a loja está aberta
+    event.setCancelled(true);
 
-      if (clickedInventory != null && clickedInventory.equals(event.getView().getTopInventory())) {
-        plugin.getConfirmationGUI().handleClick(player, event.getSlot(), event.isShiftClick());
-      }
+    // Cliques fora do inventário da loja (inventário do jogador ou fora da janela)
+    int slot = event.getRawSlot();
+    if (slot < 0 || slot >= top.getSize()) {
       return;
     }
 
-    // Verifica se é um inventário da loja
-    if (!isShopInventory(title)) {
+    ClickHandler handler = clickHandlers.get(type);
+    if (handler == null) {
       return;
     }
 
-    // Cancela QUALQUER interação quando a loja está aberta
-    event.setCancelled(true);
-
-    // Se o clique foi no inventário do jogador, ignora
-    if (clickedInventory == null || clickedInventory.equals(player.getInventory())) {
+    Player player = (Player) event.getWhoClicked();
+    if (!plugin.getGuardChain().allow(player, ShopAction.GUI_CLICK)) {
       return;
     }
 
-    // Debug log
-    plugin.getLogger().info(String.format("Clique processado: Slot=%d, LeftClick=%b, ShiftClick=%b",
-        event.getSlot(), event.isLeftClick(), event.isShiftClick()));
-
     // Marca que está trocando de inventário antes de processar o clique
     isChangingInventory = true;
 
     try {
-      // Processa o clique baseado no tipo de GUI
-      if (title.equals(
-          TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.main_shop_title", "&8Loja Prime League")))) {
-        shopGUI.handleClick(player, event.getSlot());
-      } else if (title
-          .contains(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.category_title", "&8Categoria:")))) {
-        categoryGUI.handleClick(
-            player,
-            event.getSlot(),
-            event.isLeftClick(),
-            event.isShiftClick());
-      } else if (title
-          .equals(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.confirmation_title", "&8Confirmar")))) {
-        confirmationGUI.handleClick(
-            player,
-            event.getSlot(),
-            event.isLeftClick());
-      }
+      handler.handle(player, slot, event);
     } finally {
       // Reseta a flag após processar o clique
       isChangingInventory = false;
@@ -119,34 +106,23 @@ public class ShopInventoryListener implements Listener {
 
   @EventHandler(priority = EventPriority.HIGH)
   public void onInventoryDrag(InventoryDragEvent event) {
-    if (!(event.getWhoClicked() instanceof Player)) {
-      return;
-    }
-
-    String title = event.getView().getTitle();
-
     // Cancela drag em qualquer GUI da loja
-    if (title.equals(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.confirm_title", "&8Confirmar Compra"))) ||
-        title.equals(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.category_title", "&8{category}"))) ||
-        title.equals(TextUtils.colorize(plugin.getConfigLoader().getMessage("gui.main_title", "&8Loja")))) {
+    if (ShopInventoryHolder.getType(event.getView().getTopInventory()) != null) {
       event.setCancelled(true);
     }
   }
 
   @EventHandler(priority = EventPriority.HIGH)
   public void onInventoryMoveItem(InventoryMoveItemEvent event) {
-    Inventory source = event.getSource();
-    Inventory destination = event.getDestination();
-
-    if (isShopInventory(source.getTitle()) || isShopInventory(destination.getTitle())) {
+    if (ShopInventoryHolder.getType(event.getSource()) != null
+        || ShopInventoryHolder.getType(event.getDestination()) != null) {
       event.setCancelled(true);
     }
   }
 
   @EventHandler(priority = EventPriority.HIGH)
   public void onInventoryPickupItem(InventoryPickupItemEvent event) {
-    Inventory inventory = event.getInventory();
-    if (isShopInventory(inventory.getTitle())) {
+    if (ShopInventoryHolder.getType(event.getInventory()) != null) {
       event.setCancelled(true);
     }
   }
@@ -162,55 +138,24 @@ public class ShopInventoryListener implements Listener {
       return;
     }
 
-    Player player = (Player) event.getPlayer();
-    String title = event.getView().getTitle();
-
-    plugin.getLogger().info(String.format("Inventário fechado para %s: %s", player.getName(), title));
-
     // Só limpa os dados se não estiver trocando de inventário
-    if (isShopInventory(title) && !isChangingInventory) {
-      plugin.getLogger().info("Limpando dados do jogador " + player.getName());
+    if (!isChangingInventory && ShopInventoryHolder.getType(event.getInventory()) != null) {
+      Player player = (Player) event.getPlayer();
       categoryGUI.removePlayerData(player);
       confirmationGUI.removePlayerData(player);
-    } else {
-      plugin.getLogger().info("Mantendo dados do jogador " + player.getName() + " durante troca de inventário");
     }
   }
 
   /**
-   * Limpa os dados quando o jogador desconecta
+   * Descarta o saldo em cache quando o jogador desconecta
+   *
+   * O restante do estado do jogador fica na sessão, liberada pelo
+   * {@link SessionListener}.
    *
    * @param event Evento de saída do jogador
    */
   @EventHandler(priority = EventPriority.MONITOR)
   public void onPlayerQuit(PlayerQuitEvent event) {
-    Player player = event.getPlayer();
-    plugin.getLogger().info("Jogador desconectou: " + player.getName());
-
-    // Limpa os dados do jogador quando ele desconecta
-    categoryGUI.removePlayerData(player);
-    confirmationGUI.removePlayerData(player);
-  }
-
-  /**
-   * Verifica se um inventário é da loja baseado no título
-   *
-   * @param title Título do inventário
-   * @return true se for um inventário da loja
-   */
-  private boolean isShopInventory(String title) {
-    String mainShopTitle = TextUtils
-        .colorize(plugin.getConfigLoader().getMessage("gui.main_shop_title", "&8Loja Prime League"));
-    String categoryTitle = TextUtils
-        .colorize(plugin.getConfigLoader().getMessage("gui.category_title", "&8Categoria:"));
-    String confirmBuyTitle = TextUtils
-        .colorize(plugin.getConfigLoader().getMessage("gui.confirm_buy_title", "&8Confirmar Compra"));
-    String confirmSellTitle = TextUtils
-        .colorize(plugin.getConfigLoader().getMessage("gui.confirm_sell_title", "&8Confirmar Venda"));
-
-    return title.equals(mainShopTitle) ||
-        title.contains(categoryTitle) ||
-        title.equals(confirmBuyTitle) ||
-        title.equals(confirmSellTitle);
+    plugin.getEconomyService().invalidate(event.getPlayer().getName());
   }
 }
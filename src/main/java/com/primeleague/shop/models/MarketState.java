@@ -0,0 +1,85 @@
+package com.primeleague.shop.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estado de mercado (demanda) de um item da loja
+ *
+ * Cada material/data tem uma única instância, ligada aos ShopItems quando o
+ * catálogo é montado. Assim o preço dinâmico de um item é resolvido pela
+ * própria referência, sem montar chaves nem consultar mapas.
+ */
+public final class MarketState {
+
+  /**
+   * Demanda registrada em um instante; imutável
+   */
+  public static final class Demand {
+    private final double value;
+    private final long timestamp;
+
+    public Demand(double value, long timestamp) {
+      this.value = value;
+      this.timestamp = timestamp;
+    }
+
+    public double getValue() {
+      return value;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+  }
+
+  private final String key;
+  private final AtomicReference<Demand> demand;
+  private final AtomicLong version;
+  private volatile boolean bound;
+
+  public MarketState(String key, Demand initial) {
+    this.key = key;
+    this.demand = new AtomicReference<>(initial);
+    this.version = new AtomicLong();
+  }
+
+  /**
+   * Chave de persistência (material:data)
+   */
+  public String getKey() {
+    return key;
+  }
+
+  public Demand getDemand() {
+    return demand.get();
+  }
+
+  public boolean compareAndSet(Demand expected, Demand updated) {
+    if (demand.compareAndSet(expected, updated)) {
+      version.incrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Versão da demanda, incrementada a cada negociação do item
+   *
+   * O decaimento com o tempo não altera a versão.
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Se algum item do catálogo atual usa este estado
+   */
+  public boolean isBound() {
+    return bound;
+  }
+
+  public void setBound(boolean bound) {
+    this.bound = bound;
+  }
+}
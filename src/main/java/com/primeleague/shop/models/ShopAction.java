@@ -0,0 +1,25 @@
+package com.primeleague.shop.models;
+
+/**
+ * Ações do jogador verificadas pelos guardas da loja antes de executar
+ */
+public enum ShopAction {
+  BUY("buy"),
+  SELL("sell"),
+  SELL_ALL("sellall"),
+  GUI_CLICK("gui-click"),
+  COMMAND("command");
+
+  private final String configKey;
+
+  ShopAction(String configKey) {
+    this.configKey = configKey;
+  }
+
+  /**
+   * Chave da ação em settings.transaction.rate-limit e cooldown
+   */
+  public String getConfigKey() {
+    return configKey;
+  }
+}
@@ -6,6 +6,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import com.primeleague.shop.utils.TextUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,7 +19,8 @@ public class ShopCategory {
   private final byte iconData;
   private final int slot;
   private final String permission;
-  private final List<ShopItem> items;
+  private List<ShopItem> items;
+  private final VolumeTiers volumeTiers;
 
   /**
    * Cria uma nova categoria
@@ -30,12 +32,28 @@ public class ShopCategory {
    * @param permission   Permissão necessária
    */
   public ShopCategory(String name, Material iconMaterial, byte iconData, int slot, String permission) {
+    this(name, iconMaterial, iconData, slot, permission, VolumeTiers.NONE);
+  }
+
+  /**
+   * Cria uma nova categoria com faixas de volume
+   *
+   * @param name         Nome da categoria
+   * @param iconMaterial Material do ícone
+   * @param iconData     Data value do ícone
+   * @param slot         Slot na GUI principal
+   * @param permission   Permissão necessária
+   * @param volumeTiers  Faixas de volume dos itens da categoria
+   */
+  public ShopCategory(String name, Material iconMaterial, byte iconData, int slot, String permission,
+      VolumeTiers volumeTiers) {
     this.name = name;
     this.iconMaterial = iconMaterial;
     this.iconData = iconData;
     this.slot = slot;
     this.permission = permission;
     this.items = new ArrayList<>();
+    this.volumeTiers = volumeTiers != null ? volumeTiers : VolumeTiers.NONE;
   }
 
   /**
@@ -47,6 +65,14 @@ public class ShopCategory {
     items.add(item);
   }
 
+  /**
+   * Torna a lista de itens somente leitura; chamado ao montar o catálogo,
+   * antes de publicá-lo
+   */
+  public void lockItems() {
+    items = Collections.unmodifiableList(new ArrayList<>(items));
+  }
+
   /**
    * Cria um ItemStack para exibição na GUI principal
    *
@@ -96,6 +122,10 @@ public class ShopCategory {
     return items;
   }
 
+  public VolumeTiers getVolumeTiers() {
+    return volumeTiers;
+  }
+
   /**
    * Procura um item pelo nome
    *
@@ -3,6 +3,7 @@ package com.primeleague.shop.models;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import com.primeleague.shop.utils.ShopItemIndex;
 import com.primeleague.shop.utils.TextUtils;
 
 import java.util.ArrayList;
@@ -22,6 +23,8 @@ public class ShopItem {
   private final String permission;
   private final List<String> lore;
   private final ShopCategory category;
+  private final int indexKey;
+  private MarketState marketState;
 
   /**
    * Cria um novo item da loja
@@ -47,6 +50,7 @@ public class ShopItem {
     this.permission = permission;
     this.lore = lore != null ? lore : new ArrayList<>();
     this.category = category;
+    this.indexKey = material != null ? ShopItemIndex.key(material.getId(), data) : -1;
   }
 
   /**
@@ -56,6 +60,18 @@ public class ShopItem {
    * @return ItemStack configurado
    */
   public ItemStack createDisplayItem(String currencySymbol) {
+    return createDisplayItem(currencySymbol, buyPrice, sellPrice);
+  }
+
+  /**
+   * Cria um ItemStack para exibição na GUI da loja com os preços informados
+   *
+   * @param currencySymbol Símbolo da moeda
+   * @param buyPrice       Preço de compra a exibir
+   * @param sellPrice      Preço de venda a exibir
+   * @return ItemStack configurado
+   */
+  public ItemStack createDisplayItem(String currencySymbol, double buyPrice, double sellPrice) {
     // Cria o item usando o material
     ItemStack item = new ItemStack(material, 1, data);
     ItemMeta meta = item.getItemMeta();
@@ -209,6 +225,48 @@ public class ShopItem {
     return category;
   }
 
+  /**
+   * Chave compactada de material/data usada pelo índice da loja
+   *
+   * @return Chave do índice, ou -1 se o material for inválido
+   */
+  public int getIndexKey() {
+    return indexKey;
+  }
+
+  /**
+   * Estado de mercado usado pelos preços dinâmicos
+   *
+   * @return Estado ligado a este item, ou null se os preços forem fixos
+   */
+  public MarketState getMarketState() {
+    return marketState;
+  }
+
+  /**
+   * Liga o item ao seu estado de mercado; só antes de o catálogo ser
+   * publicado, que é o que torna a ligação visível às outras threads
+   *
+   * @throws IllegalStateException se o item já estiver ligado
+   */
+  public void bindMarketState(MarketState marketState) {
+    if (this.marketState != null) {
+      throw new IllegalStateException("Item já ligado a um estado de mercado: " + displayName);
+    }
+    this.marketState = marketState;
+  }
+
+  /**
+   * Se o ItemStack é uma ferramenta ou armadura com desgaste
+   *
+   * Nesses itens a durabilidade é o dano, não o data value, e a loja só
+   * aceita itens intactos.
+   */
+  public static boolean isWorn(ItemStack itemStack) {
+    Material type = itemStack.getType();
+    return type != null && type.getMaxDurability() > 0 && itemStack.getDurability() != 0;
+  }
+
   /**
    * Verifica se o ItemStack corresponde a este ShopItem
    *
@@ -216,8 +274,8 @@ public class ShopItem {
    * @return true se o ItemStack corresponde a este ShopItem
    */
   public boolean matches(ItemStack itemStack) {
-    // Evita NPE
-    if (itemStack == null) {
+    // Evita NPE; itens gastos nunca valem como itens da loja
+    if (itemStack == null || isWorn(itemStack)) {
       return false;
     }
 
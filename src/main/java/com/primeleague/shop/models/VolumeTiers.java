@@ -0,0 +1,139 @@
+package com.primeleague.shop.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Faixas de volume aplicadas a compras e vendas em quantidade
+ *
+ * Funcionam como faixas marginais: cada faixa ajusta apenas as unidades
+ * acima do seu limite. A contagem começa no volume que o jogador já
+ * negociou recentemente, não na unidade zero da transação, então dividir
+ * uma venda grande em várias pequenas não escapa das faixas. Imutável após
+ * criada.
+ */
+public final class VolumeTiers {
+
+  /**
+   * Sem faixas: todas as unidades com multiplicador 1.0
+   */
+  public static final VolumeTiers NONE = new VolumeTiers(new int[] { 0 }, new double[] { 1.0 },
+      new double[] { 1.0 });
+
+  /**
+   * Uma faixa configurada no shop.yml
+   */
+  public static final class Tier {
+    private final int above;
+    private final double buyMultiplier;
+    private final double sellMultiplier;
+
+    /**
+     * @param above          Unidades a partir das quais a faixa vale
+     * @param buyMultiplier  Multiplicador das unidades compradas na faixa
+     * @param sellMultiplier Multiplicador das unidades vendidas na faixa
+     */
+    public Tier(int above, double buyMultiplier, double sellMultiplier) {
+      this.above = above;
+      this.buyMultiplier = buyMultiplier;
+      this.sellMultiplier = sellMultiplier;
+    }
+  }
+
+  /**
+   * Recebe cada trecho [from, to) de unidades e o multiplicador da faixa
+   */
+  public interface SegmentVisitor {
+    double visit(int from, int to, double multiplier);
+  }
+
+  private final int[] starts;
+  private final double[] buyMultipliers;
+  private final double[] sellMultipliers;
+
+  private VolumeTiers(int[] starts, double[] buyMultipliers, double[] sellMultipliers) {
+    this.starts = starts;
+    this.buyMultipliers = buyMultipliers;
+    this.sellMultipliers = sellMultipliers;
+  }
+
+  /**
+   * Monta as faixas a partir das configuradas, em qualquer ordem
+   *
+   * @param tiers Faixas lidas da configuração
+   * @return Faixas prontas, ou {@link #NONE} se a lista estiver vazia
+   */
+  public static VolumeTiers of(List<Tier> tiers) {
+    if (tiers == null || tiers.isEmpty()) {
+      return NONE;
+    }
+
+    List<Tier> sorted = new ArrayList<>(tiers);
+    Collections.sort(sorted, (a, b) -> Integer.compare(a.above, b.above));
+
+    // A primeira faixa sempre começa na unidade zero
+    boolean hasBase = sorted.get(0).above <= 0;
+    int size = sorted.size() + (hasBase ? 0 : 1);
+    int[] starts = new int[size];
+    double[] buy = new double[size];
+    double[] sell = new double[size];
+
+    int index = 0;
+    if (!hasBase) {
+      buy[0] = 1.0;
+      sell[0] = 1.0;
+      index = 1;
+    }
+    for (Tier tier : sorted) {
+      starts[index] = Math.max(0, tier.above);
+      buy[index] = tier.buyMultiplier;
+      sell[index] = tier.sellMultiplier;
+      index++;
+    }
+
+    return new VolumeTiers(starts, buy, sell);
+  }
+
+  /**
+   * Soma o resultado do visitante para cada faixa tocada por uma quantidade
+   *
+   * @see #sum(int, int, boolean, SegmentVisitor)
+   */
+  public double sum(int quantity, boolean isBuying, SegmentVisitor visitor) {
+    return sum(0, quantity, isBuying, visitor);
+  }
+
+  /**
+   * Soma o resultado do visitante para cada faixa tocada por uma quantidade
+   * negociada depois de outras já contadas
+   *
+   * Os trechos passados ao visitante são relativos ao início da transação.
+   * O custo é proporcional ao número de faixas, não à quantidade.
+   *
+   * @param offset   Unidades já negociadas antes desta transação
+   * @param quantity Quantidade negociada
+   * @param isBuying true para compra, false para venda
+   * @param visitor  Calcula o valor de cada trecho
+   * @return Soma dos trechos
+   */
+  public double sum(int offset, int quantity, boolean isBuying, SegmentVisitor visitor) {
+    double[] multipliers = isBuying ? buyMultipliers : sellMultipliers;
+    long start = Math.max(0, offset);
+    long end = start + quantity;
+    double total = 0.0;
+
+    for (int i = 0; i < starts.length && starts[i] < end; i++) {
+      long from = Math.max(start, starts[i]);
+      long to = i + 1 < starts.length ? Math.min(end, starts[i + 1]) : end;
+      if (to > from) {
+        total += visitor.visit((int) (from - start), (int) (to - start), multipliers[i]);
+      }
+    }
+    return total;
+  }
+
+  public boolean isEmpty() {
+    return this == NONE;
+  }
+}
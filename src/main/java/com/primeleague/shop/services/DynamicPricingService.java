@@ -1,40 +1,82 @@
 package com.primeleague.shop.services;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.MarketState;
 import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.models.VolumeTiers;
+import com.primeleague.shop.utils.Cleanable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bukkit.configuration.ConfigurationSection;
 
-public class DynamicPricingService {
+/**
+ * Preços dinâmicos baseados na demanda
+ *
+ * A demanda de cada item decai continuamente com meia-vida configurável.
+ * O decaimento é calculado na leitura a partir do tempo decorrido, então
+ * não existe tarefa periódica percorrendo os itens e o preço está correto
+ * em qualquer instante. O estado de cada item é imutável e trocado por CAS,
+ * permitindo leituras e escritas de qualquer thread sem locks.
+ *
+ * O estado de cada material/data é um {@link MarketState} ligado aos
+ * ShopItems ao montar o catálogo, então resolver um preço não cria chaves
+ * nem consulta mapas.
+ *
+ * O estado é salvo periodicamente em pricing.dat, fora da thread
+ * principal, e restaurado ao habilitar o plugin.
+ */
+public class DynamicPricingService implements Cleanable {
   private final PrimeLeagueShopPlugin plugin;
-  private final Map<String, PriceData> priceCache;
+  private final Map<String, MarketState> priceCache;
   private final double minMultiplier;
   private final double maxMultiplier;
   private final double decayRate;
+  private final double decayPerMs;
+  private final boolean logPriceChanges;
   private final Logger logger;
+  private final AtomicLong priceVersion;
+  private final TradeVolumeTracker volumeTracker;
+  private final File snapshotFile;
+  private final Object snapshotLock;
+  private volatile long savedVersion;
   private boolean enabled;
 
-  private static class PriceData {
-    private double basePrice;
-    private double currentPrice;
-    private int demand;
-    private long lastUpdate;
+  // Variação do multiplicador por unidade de demanda
+  private static final double DEMAND_SLOPE = 0.01;
 
-    public PriceData(double basePrice) {
-      this.basePrice = basePrice;
-      this.currentPrice = basePrice;
-      this.demand = 0;
-      this.lastUpdate = System.currentTimeMillis();
-    }
-  }
+  // Identificação e versão do formato de pricing.dat
+  private static final int SNAPSHOT_MAGIC = 0x504C5350;
+  private static final int SNAPSHOT_FORMAT = 1;
 
   public DynamicPricingService(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.priceCache = new HashMap<String, PriceData>();
+    this.priceCache = new ConcurrentHashMap<String, MarketState>();
     this.logger = plugin.getLogger();
+    this.priceVersion = new AtomicLong();
+    // Vale mesmo sem preços dinâmicos: as faixas de volume dependem dele
+    this.volumeTracker = new TradeVolumeTracker(
+        plugin.getConfig().getLong("pricing.volume.half-life", 3600),
+        plugin.getConfig().getInt("pricing.volume.max-entries", 10000));
+    this.snapshotFile = new File(plugin.getDataFolder(), "pricing.dat");
+    this.snapshotLock = new Object();
 
     ConfigurationSection config = plugin.getConfig().getConfigurationSection("pricing.dynamic");
     if (config == null) {
@@ -43,6 +85,8 @@ public class DynamicPricingService {
       this.minMultiplier = 0.5;
       this.maxMultiplier = 2.0;
       this.decayRate = 0.01;
+      this.decayPerMs = 0.0;
+      this.logPriceChanges = false;
       return;
     }
 
@@ -50,130 +94,388 @@ public class DynamicPricingService {
     this.minMultiplier = config.getDouble("min-multiplier", 0.5);
     this.maxMultiplier = config.getDouble("max-multiplier", 2.0);
     this.decayRate = config.getDouble("decay-rate", 0.01);
+    this.decayPerMs = resolveDecayPerMs(config);
+    this.logPriceChanges = config.getBoolean("logging.enabled", true)
+        && config.getBoolean("logging.log-price-changes", true);
 
     logger.info("Sistema de preços dinâmicos inicializado:");
     logger.info("Enabled: " + enabled);
     logger.info("Min Multiplier: " + minMultiplier);
     logger.info("Max Multiplier: " + maxMultiplier);
     logger.info("Decay Rate: " + decayRate);
+    if (decayPerMs > 0) {
+      logger.info(String.format("Meia-vida da demanda: %.1f horas", Math.log(2) / decayPerMs / 3600000.0));
+    }
 
     if (enabled) {
-      startPriceUpdateTask();
+      loadSnapshot();
+      startSnapshotTask(config.getLong("persistence.save-interval", 300) * 20L);
     }
   }
 
   /**
-   * Atualiza o preço de um item baseado na demanda
+   * Calcula a constante de decaimento por milissegundo
+   *
+   * Usa demand.half-life (segundos) se definido; senão converte o
+   * decay-rate, que é a fração perdida por hora.
    */
-  public void updatePrice(ShopItem item, int quantity, boolean isBuy) {
+  private double resolveDecayPerMs(ConfigurationSection config) {
+    if (!config.getBoolean("demand.decay-enabled", true)) {
+      return 0.0;
+    }
+
+    double halfLifeSeconds = config.getDouble("demand.half-life", 0);
+    if (halfLifeSeconds > 0) {
+      return Math.log(2) / (halfLifeSeconds * 1000.0);
+    }
+
+    if (decayRate <= 0 || decayRate >= 1) {
+      return 0.0;
+    }
+    return -Math.log(1.0 - decayRate) / 3600000.0;
+  }
+
+  /**
+   * Demanda de um estado no instante informado
+   */
+  private double decayedDemand(MarketState.Demand demand, long now) {
+    if (decayPerMs <= 0 || now <= demand.getTimestamp()) {
+      return demand.getValue();
+    }
+    return demand.getValue() * Math.exp(-decayPerMs * (now - demand.getTimestamp()));
+  }
+
+  /**
+   * Liga os itens do catálogo aos seus estados de mercado
+   *
+   * Chamado ao montar o catálogo; itens com o mesmo material/data
+   * compartilham o estado, que sobrevive a reloads.
+   */
+  public void bindItems(Collection<ShopItem> items) {
     if (!enabled) {
       return;
     }
 
-    String itemKey = item.getMaterial().name() + ":" + item.getData();
-    PriceData priceData = priceCache.computeIfAbsent(itemKey, k -> new PriceData(item.getBuyPrice()));
+    for (MarketState state : priceCache.values()) {
+      state.setBound(false);
+    }
 
-    // Atualiza demanda
-    if (isBuy) {
-      priceData.demand += quantity;
-    } else {
-      priceData.demand -= quantity;
+    for (ShopItem item : items) {
+      MarketState state = priceCache.computeIfAbsent(marketKey(item),
+          k -> new MarketState(k, new MarketState.Demand(0.0, System.currentTimeMillis())));
+      state.setBound(true);
+      item.bindMarketState(state);
     }
+  }
+
+  private static String marketKey(ShopItem item) {
+    return item.getMaterial().name() + ":" + item.getData();
+  }
 
-    // Calcula novo multiplicador
-    double multiplier = 1.0;
-    if (priceData.demand > 0) {
-      multiplier = Math.min(maxMultiplier, 1.0 + (priceData.demand * 0.01));
-    } else if (priceData.demand < 0) {
-      multiplier = Math.max(minMultiplier, 1.0 + (priceData.demand * 0.01));
+  /**
+   * Atualiza o preço de um item baseado na demanda
+   */
+  public void updatePrice(ShopItem item, int quantity, boolean isBuy) {
+    if (!enabled || item == null) {
+      return;
     }
 
-    // Aplica decay se necessário
-    long now = System.currentTimeMillis();
-    long timeDiff = now - priceData.lastUpdate;
-    if (timeDiff > 3600000) { // 1 hora
-      int decayHours = (int) (timeDiff / 3600000);
-      priceData.demand = (int) (priceData.demand * Math.pow(1.0 - decayRate, decayHours));
+    MarketState state = item.getMarketState();
+    if (state == null) {
+      return;
     }
 
-    // Atualiza preço
-    priceData.currentPrice = priceData.basePrice * multiplier;
-    priceData.lastUpdate = now;
+    double delta = isBuy ? quantity : -quantity;
+    long now = System.currentTimeMillis();
+    MarketState.Demand current;
+    MarketState.Demand updated;
+    do {
+      current = state.getDemand();
+      updated = new MarketState.Demand(decayedDemand(current, now) + delta, now);
+    } while (!state.compareAndSet(current, updated));
 
-    // Atualiza cache
-    priceCache.put(itemKey, priceData);
+    priceVersion.incrementAndGet();
 
     // Log da atualização
-    logger.info(String.format(
-      "Preço atualizado para %s: base=%.2f, atual=%.2f, demanda=%d",
-      itemKey,
-      priceData.basePrice,
-      priceData.currentPrice,
-      priceData.demand
-    ));
+    if (logPriceChanges) {
+      logger.info(String.format(
+        "Preço atualizado para %s: base=%.2f, atual=%.2f, demanda=%.2f",
+        state.getKey(),
+        item.getBuyPrice(),
+        item.getBuyPrice() * multiplierFor(updated.getValue()),
+        updated.getValue()
+      ));
+    }
   }
 
   /**
-   * Obtém o preço atual de um item
+   * Multiplicador para uma demanda, limitado pela configuração
    */
-  public double getCurrentPrice(ShopItem item) {
-    if (!enabled) {
-      return item.getBuyPrice();
+  private double multiplierFor(double demand) {
+    double multiplier = 1.0 + (demand * DEMAND_SLOPE);
+    return Math.max(minMultiplier, Math.min(maxMultiplier, multiplier));
+  }
+
+  /**
+   * Primitiva do multiplicador limitado em relação à demanda
+   *
+   * A diferença entre dois pontos é a área sob a curva de preço (por
+   * unidade de preço base) entre essas demandas.
+   */
+  private double multiplierArea(double demand) {
+    double lower = (minMultiplier - 1.0) / DEMAND_SLOPE;
+    double upper = (maxMultiplier - 1.0) / DEMAND_SLOPE;
+
+    if (demand <= lower) {
+      return minMultiplier * demand;
     }
 
-    String itemKey = item.getMaterial().name() + ":" + item.getData();
-    PriceData priceData = priceCache.get(itemKey);
+    double lowerArea = minMultiplier * lower;
+    if (demand < upper) {
+      return lowerArea + (demand - lower) + DEMAND_SLOPE / 2.0 * (demand * demand - lower * lower);
+    }
+
+    double upperArea = lowerArea + (upper - lower) + DEMAND_SLOPE / 2.0 * (upper * upper - lower * lower);
+    return upperArea + maxMultiplier * (demand - upper);
+  }
+
+  /**
+   * Preço total de uma quantidade do item
+   *
+   * Cada unidade negociada move a demanda, então o total é a área sob a
+   * curva de preço entre a demanda atual e a demanda após a transação,
+   * ajustada pelas faixas de volume da categoria. O cálculo é fechado e não
+   * depende da quantidade. Pela curva, comprar e revender o mesmo lote nunca
+   * dá lucro; faixas com multiplicador de compra abaixo do de venda podem dar.
+   *
+   * @param item     Item negociado
+   * @param quantity Quantidade
+   * @param isBuying true para compra, false para venda
+   * @return Preço total
+   */
+  public double getTotalPrice(ShopItem item, int quantity, boolean isBuying) {
+    return getTotalPrice(null, item, quantity, isBuying);
+  }
 
-    if (priceData == null) {
-      return item.getBuyPrice();
+  /**
+   * Preço total de uma quantidade do item para um jogador
+   *
+   * As faixas de volume começam no volume que o jogador negociou
+   * recentemente do item, então vender em lotes pequenos rende o mesmo
+   * que vender tudo de uma vez.
+   *
+   * @param playerId Jogador negociando, ou null para ignorar o volume recente
+   */
+  public double getTotalPrice(UUID playerId, ShopItem item, int quantity, final boolean isBuying) {
+    if (quantity <= 0) {
+      return 0.0;
     }
 
-    return priceData.currentPrice;
+    final double basePrice = isBuying ? item.getBuyPrice() : item.getSellPrice();
+    final MarketState state = enabled ? item.getMarketState() : null;
+    final double demand = state != null ? decayedDemand(state.getDemand(), System.currentTimeMillis()) : 0.0;
+    VolumeTiers tiers = item.getCategory() != null ? item.getCategory().getVolumeTiers() : VolumeTiers.NONE;
+    int offset = playerId != null && !tiers.isEmpty() ? volumeTracker.getVolume(playerId, item, isBuying) : 0;
+
+    return tiers.sum(offset, quantity, isBuying, (from, to, tierMultiplier) -> {
+      double area;
+      if (state == null) {
+        area = to - from;
+      } else if (isBuying) {
+        // Compras elevam a demanda
+        area = multiplierArea(demand + to) - multiplierArea(demand + from);
+      } else {
+        // Vendas reduzem a demanda
+        area = multiplierArea(demand - from) - multiplierArea(demand - to);
+      }
+      return basePrice * tierMultiplier * area;
+    });
   }
 
   /**
-   * Limpa preços antigos do cache
+   * Soma uma transação concluída ao volume recente do jogador
    */
+  public void recordVolume(UUID playerId, ShopItem item, int quantity, boolean isBuying) {
+    volumeTracker.record(playerId, item, quantity, isBuying);
+  }
+
+  public TradeVolumeTracker getVolumeTracker() {
+    return volumeTracker;
+  }
+
+  /**
+   * Multiplicador atual de um item (1.0 sem preços dinâmicos)
+   */
+  public double getMultiplier(ShopItem item) {
+    MarketState state = enabled ? item.getMarketState() : null;
+    if (state == null) {
+      return 1.0;
+    }
+    return multiplierFor(decayedDemand(state.getDemand(), System.currentTimeMillis()));
+  }
+
+  /**
+   * Preço efetivo de compra de uma unidade
+   */
+  public double getBuyPrice(ShopItem item) {
+    return item.getBuyPrice() * getMultiplier(item);
+  }
+
+  /**
+   * Preço efetivo de venda de uma unidade
+   *
+   * Usa o mesmo multiplicador da compra, mantendo a margem entre os dois.
+   */
+  public double getSellPrice(ShopItem item) {
+    return item.getSellPrice() * getMultiplier(item);
+  }
+
+  /**
+   * Preço efetivo de uma unidade na direção informada
+   */
+  public double getPrice(ShopItem item, boolean isBuying) {
+    return isBuying ? getBuyPrice(item) : getSellPrice(item);
+  }
+
+  /**
+   * Obtém o preço atual de um item
+   */
+  public double getCurrentPrice(ShopItem item) {
+    return getBuyPrice(item);
+  }
+
+  /**
+   * Remove estados que nenhum item usa e cuja demanda já não afeta o preço
+   */
+  @Override
   public void cleanup() {
     if (!enabled) {
       return;
     }
 
     long now = System.currentTimeMillis();
-    priceCache.entrySet().removeIf(entry ->
-      now - entry.getValue().lastUpdate > 86400000 // 24 horas
+    priceCache.values().removeIf(state ->
+      !state.isBound() && Math.abs(decayedDemand(state.getDemand(), now)) < 0.5
     );
   }
 
-  private void startPriceUpdateTask() {
-    int interval = plugin.getConfig().getInt("pricing.dynamic.update-interval", 300) * 20;
-    logger.info("Iniciando tarefa de atualização de preços com intervalo de " + interval + " ticks");
+  public void shutdown() {
+    if (enabled) {
+      saveSnapshot();
+    }
+    logger.info("Desligando serviço de preços dinâmicos, limpando " + priceCache.size() + " itens do cache");
+    priceCache.clear();
+  }
+
+  /**
+   * Agenda o salvamento periódico do estado, fora da thread principal
+   */
+  private void startSnapshotTask(long interval) {
+    if (interval <= 0) {
+      return;
+    }
 
     plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+      @Override
       public void run() {
-        try {
-          int updatedItems = 0;
-          for (Map.Entry<String, PriceData> entry : priceCache.entrySet()) {
-            PriceData data = entry.getValue();
-            if (data.demand > 0) {
-              data.demand = Math.max(0, data.demand - 1);
-              updatePrice(null, 0, false);
-              updatedItems++;
-            }
+        // Só grava se houve alteração desde o último salvamento
+        if (priceVersion.get() != savedVersion) {
+          saveSnapshot();
+        }
+      }
+    }, interval, interval);
+  }
+
+  /**
+   * Grava a demanda de todos os itens em pricing.dat
+   *
+   * Escreve em um arquivo temporário e o move sobre o anterior, então uma
+   * falha no meio da gravação nunca corrompe o último estado salvo.
+   */
+  public void saveSnapshot() {
+    synchronized (snapshotLock) {
+      long version = priceVersion.get();
+      long now = System.currentTimeMillis();
+      File tempFile = new File(snapshotFile.getPath() + ".tmp");
+
+      try {
+        List<MarketState.Demand> demands = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (MarketState state : priceCache.values()) {
+          MarketState.Demand demand = state.getDemand();
+          // Demanda que já não afeta o preço não precisa ser salva
+          if (Math.abs(decayedDemand(demand, now)) >= 0.5) {
+            keys.add(state.getKey());
+            demands.add(demand);
           }
-          if (updatedItems > 0) {
-            logger.fine("Atualizados " + updatedItems + " itens no ciclo de atualização de preços");
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+          out.writeInt(SNAPSHOT_MAGIC);
+          out.writeInt(SNAPSHOT_FORMAT);
+          out.writeInt(keys.size());
+          for (int i = 0; i < keys.size(); i++) {
+            out.writeUTF(keys.get(i));
+            out.writeDouble(demands.get(i).getValue());
+            out.writeLong(demands.get(i).getTimestamp());
           }
-        } catch (Exception e) {
-          logger.log(Level.SEVERE, "Erro durante a atualização automática de preços", e);
         }
+
+        try {
+          Files.move(tempFile.toPath(), snapshotFile.toPath(),
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        savedVersion = version;
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Erro ao salvar estado dos preços dinâmicos", e);
       }
-    }, interval, interval);
+    }
   }
 
-  public void shutdown() {
-    logger.info("Desligando serviço de preços dinâmicos, limpando " + priceCache.size() + " itens do cache");
-    priceCache.clear();
+  /**
+   * Restaura a demanda salva em pricing.dat
+   *
+   * Os timestamps são preservados, então a demanda continua decaindo pelo
+   * tempo em que o servidor ficou desligado.
+   */
+  private void loadSnapshot() {
+    if (!snapshotFile.exists()) {
+      return;
+    }
+
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+        logger.warning("Arquivo pricing.dat em formato desconhecido, ignorando");
+        return;
+      }
+
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String itemKey = in.readUTF();
+        double demand = in.readDouble();
+        long timestamp = in.readLong();
+        priceCache.put(itemKey, new MarketState(itemKey, new MarketState.Demand(demand, timestamp)));
+      }
+
+      logger.info("Restaurados preços dinâmicos de " + count + " itens");
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Erro ao restaurar estado dos preços dinâmicos", e);
+    }
+  }
+
+  /**
+   * Versão dos preços, incrementada a cada alteração de demanda
+   *
+   * Usada para saber se o estado precisa ser salvo; para um item só, veja
+   * {@link MarketState#getVersion()}.
+   */
+  public long getPriceVersion() {
+    return priceVersion.get();
   }
 
   public boolean isEnabled() {
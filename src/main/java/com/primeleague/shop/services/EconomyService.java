@@ -1,39 +1,84 @@
 package com.primeleague.shop.services;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
-import org.bukkit.plugin.RegisteredServiceProvider;
+import com.primeleague.shop.economy.AsyncEconomy;
+import com.primeleague.shop.economy.EconomyBackend;
+import com.primeleague.shop.economy.EconomyResult;
+import com.primeleague.shop.economy.InMemoryEconomyBackend;
+import com.primeleague.shop.economy.VaultEconomyBackend;
+import com.primeleague.shop.utils.CacheManager;
+import com.primeleague.shop.utils.Cleanable;
 
-import net.milkbowl.vault.economy.Economy;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Serviço para gerenciar a economia
- * Suporta Vault para compatibilidade com vários plugins de economia
+ * Suporta Vault para compatibilidade com vários plugins de economia, ou uma
+ * economia em memória para testes. Consultas de saldo feitas pelas telas
+ * podem rodar fora da thread principal com {@link #getBalanceAsync}.
+ *
+ * Os saldos ficam em um {@link CacheManager} limitado. Saques e depósitos
+ * gravam o saldo retornado pela economia (write-through) e uma leitura só é
+ * instalada se nenhuma escrita aconteceu enquanto ela estava em andamento.
+ * A versão de escrita de cada jogador fica fora do cache, então sobrevive a
+ * invalidações, expirações e despejos.
  */
-public class EconomyService {
+public class EconomyService implements Cleanable {
 
   private final PrimeLeagueShopPlugin plugin;
-  private Economy economy;
-  private boolean vaultEnabled;
+  private EconomyBackend backend;
+  private AsyncEconomy asyncEconomy;
+  private boolean economyEnabled;
 
-  private final Map<String, BalanceCache> balanceCache;
-  private static final long CACHE_TTL = 30000; // 30 segundos
-  private static final int MAX_CACHE_SIZE = 1000;
+  private final CacheManager<String, BalanceEntry> balanceCache;
+  private final ConcurrentMap<String, WriteVersion> writeVersions;
 
-  private static class BalanceCache {
+  // Intervalo mínimo entre consultas à economia quando o saldo em cache é insuficiente
+  private static final long MIN_REFRESH_INTERVAL = 2000L;
+
+  // Tempo sem uso após o qual a versão de um jogador sem saldo em cache é descartada;
+  // bem maior que qualquer consulta à economia
+  private static final long WRITE_VERSION_RETENTION = TimeUnit.MINUTES.toMillis(10);
+
+  /**
+   * Saldo em cache de um jogador; imutável
+   */
+  private static final class BalanceEntry {
     private final double balance;
     private final long timestamp;
 
-    public BalanceCache(double balance) {
+    BalanceEntry(double balance) {
       this.balance = balance;
       this.timestamp = System.currentTimeMillis();
     }
 
-    public boolean isExpired() {
-      return System.currentTimeMillis() - timestamp > CACHE_TTL;
+    long age() {
+      return System.currentTimeMillis() - timestamp;
+    }
+  }
+
+  /**
+   * Contador de escritas e invalidações do saldo de um jogador
+   */
+  private static final class WriteVersion {
+    private final AtomicLong value = new AtomicLong();
+    private volatile long touchedAt = System.currentTimeMillis();
+
+    long get() {
+      touchedAt = System.currentTimeMillis();
+      return value.get();
+    }
+
+    void increment() {
+      touchedAt = System.currentTimeMillis();
+      value.incrementAndGet();
     }
   }
 
@@ -44,26 +89,51 @@ public class EconomyService {
    */
   public EconomyService(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.balanceCache = new HashMap<>();
-    this.vaultEnabled = setupEconomy();
+    this.balanceCache = new CacheManager<>(
+        plugin.getConfig().getInt("settings.economy.balance-cache.max-size", 1000),
+        plugin.getConfig().getLong("settings.economy.balance-cache.ttl", 30), TimeUnit.SECONDS);
+    this.writeVersions = new ConcurrentHashMap<>();
+    this.economyEnabled = setupEconomy();
+    if (economyEnabled) {
+      this.asyncEconomy = new AsyncEconomy(plugin, backend,
+          plugin.getConfig().getInt("settings.economy.async-threads", 2));
+      plugin.getLogger().info("Economia: " + backend.getName());
+    }
+  }
 
-    // Inicia tarefa de limpeza do cache
-    if (vaultEnabled) {
-      plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
-        @Override
-        public void run() {
-          cleanupCache();
-        }
-      }, 6000L, 6000L); // A cada 5 minutos
+  /**
+   * Remove saldos expirados do cache e versões sem uso
+   */
+  @Override
+  public void cleanup() {
+    balanceCache.cleanup();
+
+    long cutoff = System.currentTimeMillis() - WRITE_VERSION_RETENTION;
+    Iterator<WriteVersion> it = writeVersions.values().iterator();
+    while (it.hasNext()) {
+      if (it.next().touchedAt < cutoff) {
+        it.remove();
+      }
     }
   }
 
+  private WriteVersion writeVersion(String playerName) {
+    return writeVersions.computeIfAbsent(playerName, k -> new WriteVersion());
+  }
+
   /**
-   * Configura o sistema de economia (Vault)
+   * Configura o sistema de economia (Vault ou economia em memória)
    *
    * @return true se configurou com sucesso
    */
   private boolean setupEconomy() {
+    if ("memory".equalsIgnoreCase(plugin.getConfig().getString("settings.economy.backend", "vault"))) {
+      plugin.getLogger().warning("Usando economia em memória; os saldos não serão salvos.");
+      backend = new InMemoryEconomyBackend(
+          plugin.getConfig().getDouble("settings.economy.memory-starting-balance", 1000.0));
+      return true;
+    }
+
     if (!plugin.getConfigLoader().useVault()) {
       plugin.getLogger().warning("Vault desativado na configuração, não será usado.");
       return false;
@@ -74,13 +144,11 @@ public class EconomyService {
       return false;
     }
 
-    RegisteredServiceProvider<Economy> rsp = plugin.getServer().getServicesManager().getRegistration(Economy.class);
-    if (rsp == null) {
+    backend = VaultEconomyBackend.lookup(plugin.getServer());
+    if (backend == null) {
       plugin.getLogger().warning("Serviço de economia não encontrado, verifique se está usando um plugin de economia.");
       return false;
     }
-
-    economy = rsp.getProvider();
     return true;
   }
 
@@ -90,7 +158,7 @@ public class EconomyService {
    * @return true se o sistema estiver disponível
    */
   public boolean isEconomyAvailable() {
-    return vaultEnabled && economy != null;
+    return economyEnabled && backend != null;
   }
 
   /**
@@ -104,26 +172,124 @@ public class EconomyService {
       return 0.0;
     }
 
-    String playerName = player.getName();
-    BalanceCache cached = balanceCache.get(playerName);
-
-    if (cached != null && !cached.isExpired()) {
+    BalanceEntry cached = balanceCache.get(player.getName());
+    if (cached != null) {
       return cached.balance;
     }
+    return loadBalance(player.getName());
+  }
 
-    double balance = economy.getBalance(playerName);
+  /**
+   * Obtém o saldo apenas do cache, sem consultar a economia
+   *
+   * @param player Jogador
+   * @return Saldo em cache, ou null se não houver um válido
+   */
+  public Double getCachedBalance(Player player) {
+    BalanceEntry cached = balanceCache.get(player.getName());
+    return cached != null ? cached.balance : null;
+  }
 
-    // Atualiza cache
-    balanceCache.put(playerName, new BalanceCache(balance));
+  /**
+   * Obtém o saldo sem bloquear a thread principal
+   *
+   * Se o saldo estiver em cache, o callback é chamado imediatamente; senão
+   * a consulta roda no executor da economia e o callback é chamado na
+   * thread principal quando ela terminar.
+   *
+   * @param player   Jogador
+   * @param callback Recebe o saldo na thread principal
+   */
+  public void getBalanceAsync(Player player, Consumer<Double> callback) {
+    if (!isEconomyAvailable()) {
+      callback.accept(0.0);
+      return;
+    }
 
-    // Remove entradas antigas se o cache estiver muito grande
-    if (balanceCache.size() > MAX_CACHE_SIZE) {
-      cleanupCache();
+    Double cached = getCachedBalance(player);
+    if (cached != null) {
+      callback.accept(cached);
+      return;
     }
 
+    final String playerName = player.getName();
+    asyncEconomy.onMainThread(asyncEconomy.supply(() -> loadBalance(playerName)), callback);
+  }
+
+  /**
+   * Consulta a economia e instala o saldo, a menos que uma escrita tenha chegado antes
+   */
+  private double loadBalance(String playerName) {
+    final WriteVersion version = writeVersion(playerName);
+    final long seenVersion = version.get();
+    final double balance = backend.getBalance(playerName);
+
+    balanceCache.compute(playerName, (name, current) -> {
+      if (version.get() != seenVersion) {
+        return current; // Escrita ou invalidação durante a consulta
+      }
+      return new BalanceEntry(balance);
+    });
     return balance;
   }
 
+  /**
+   * Grava no cache o saldo informado pela economia após uma operação
+   *
+   * Deve ser chamado por quem movimenta saldo diretamente pelo backend, para
+   * que as telas continuem mostrando o valor correto sem nova consulta.
+   *
+   * @param playerName Nome do jogador
+   * @param response   Resultado do saque ou depósito
+   */
+  public void applyResponse(String playerName, EconomyResult response) {
+    if (response == null) {
+      return;
+    }
+    if (!response.isSuccess()) {
+      // Falhas podem indicar que o saldo mudou por fora
+      invalidate(playerName);
+      return;
+    }
+
+    final double balance = response.getBalance();
+    final WriteVersion version = writeVersion(playerName);
+    balanceCache.compute(playerName, (name, current) -> {
+      version.increment();
+      return new BalanceEntry(balance);
+    });
+  }
+
+  /**
+   * Descarta o saldo em cache de um jogador
+   *
+   * @param playerName Nome do jogador
+   */
+  public void invalidate(String playerName) {
+    final WriteVersion version = writeVersion(playerName);
+    balanceCache.compute(playerName, (name, current) -> {
+      version.increment(); // Descarta leituras em andamento
+      return null;
+    });
+  }
+
+  /**
+   * Descarta todos os saldos em cache
+   */
+  public void invalidateAll() {
+    for (WriteVersion version : writeVersions.values()) {
+      version.increment();
+    }
+    balanceCache.invalidateAll();
+  }
+
+  /**
+   * Contadores do cache de saldos
+   */
+  public CacheManager.Stats getBalanceCacheStats() {
+    return balanceCache.getStats();
+  }
+
   /**
    * Verifica se um jogador tem saldo suficiente
    *
@@ -170,13 +336,20 @@ public class EconomyService {
     }
 
     // Usa o cache para verificação rápida
-    double cachedBalance = getBalance(player);
-    if (cachedBalance >= amount) {
+    BalanceEntry cached = balanceCache.get(player.getName());
+    if (cached == null) {
+      return loadBalance(player.getName()) >= amount;
+    }
+    if (cached.balance >= amount) {
       return true;
     }
 
-    // Se o cache indicar que não tem saldo suficiente, verifica direto na economia
-    return economy.has(player.getName(), amount);
+    // Saldo insuficiente no cache: pode ter recebido dinheiro por fora, mas
+    // consulta a economia no máximo uma vez por intervalo
+    if (cached.age() < MIN_REFRESH_INTERVAL) {
+      return false;
+    }
+    return loadBalance(player.getName()) >= amount;
   }
 
   /**
@@ -190,17 +363,7 @@ public class EconomyService {
     if (!isEconomyAvailable() || !has(player, amount)) {
       return false;
     }
-
-    boolean success = economy.withdrawPlayer(player.getName(), amount).transactionSuccess();
-    if (success) {
-      // Atualiza cache
-      String playerName = player.getName();
-      BalanceCache cached = balanceCache.get(playerName);
-      if (cached != null && !cached.isExpired()) {
-        balanceCache.put(playerName, new BalanceCache(cached.balance - amount));
-      }
-    }
-    return success;
+    return withdraw(player, amount).isSuccess();
   }
 
   /**
@@ -211,24 +374,95 @@ public class EconomyService {
    * @return true se a operação foi bem-sucedida
    */
   public boolean depositPlayer(Player player, double amount) {
+    return deposit(player, amount).isSuccess();
+  }
+
+  /**
+   * Retira dinheiro em uma única chamada à economia, sem verificação prévia
+   *
+   * O saldo retornado é gravado no cache.
+   *
+   * @param player Jogador
+   * @param amount Quantia a retirar
+   * @return Resposta da economia
+   */
+  public EconomyResult withdraw(Player player, double amount) {
     if (!isEconomyAvailable()) {
-      return false;
+      return unavailable(amount);
+    }
+
+    EconomyResult response = backend.withdraw(player.getName(), amount);
+    applyResponse(player.getName(), response);
+    return response;
+  }
+
+  /**
+   * Adiciona dinheiro em uma única chamada à economia
+   *
+   * O saldo retornado é gravado no cache.
+   *
+   * @param player Jogador
+   * @param amount Quantia a adicionar
+   * @return Resposta da economia
+   */
+  public EconomyResult deposit(Player player, double amount) {
+    if (!isEconomyAvailable()) {
+      return unavailable(amount);
     }
 
-    boolean success = economy.depositPlayer(player.getName(), amount).transactionSuccess();
-    if (success) {
-      // Atualiza cache
-      String playerName = player.getName();
-      BalanceCache cached = balanceCache.get(playerName);
-      if (cached != null && !cached.isExpired()) {
-        balanceCache.put(playerName, new BalanceCache(cached.balance + amount));
+    EconomyResult response = backend.deposit(player.getName(), amount);
+    applyResponse(player.getName(), response);
+    return response;
+  }
+
+  /**
+   * Liquida uma operação com vários itens em uma única chamada à economia
+   *
+   * O valor líquido é verificado uma vez contra o saldo em cache e então
+   * retirado ou depositado de uma só vez. Operações sem valor líquido não
+   * chamam a economia.
+   *
+   * @param player     Jogador
+   * @param settlement Linhas da operação
+   * @return Resposta da economia; em caso de saldo insuficiente, o saldo
+   *         informado é o do cache
+   */
+  public EconomyResult settle(Player player, Settlement settlement) {
+    double net = settlement.getNetAmount();
+
+    if (net > 0) {
+      if (!has(player, net)) {
+        return EconomyResult.failure(net, cachedBalance(player.getName()), "Saldo insuficiente");
       }
+      return withdraw(player, net);
+    }
+
+    if (net < 0) {
+      return deposit(player, -net);
     }
-    return success;
+
+    return EconomyResult.success(0.0, cachedBalance(player.getName()));
   }
 
-  private void cleanupCache() {
-    balanceCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+  /**
+   * Saldo em cache, sem consultar a economia
+   */
+  private double cachedBalance(String playerName) {
+    BalanceEntry cached = balanceCache.get(playerName);
+    return cached != null ? cached.balance : 0.0;
+  }
+
+  private static EconomyResult unavailable(double amount) {
+    return EconomyResult.failure(amount, 0.0, "Economia indisponível");
+  }
+
+  /**
+   * Encerra as consultas assíncronas à economia
+   */
+  public void shutdown() {
+    if (asyncEconomy != null) {
+      asyncEconomy.shutdown();
+    }
   }
 
   /**
@@ -241,6 +475,6 @@ public class EconomyService {
     if (!isEconomyAvailable()) {
       return String.format("%.2f", amount);
     }
-    return economy.format(amount);
+    return backend.format(amount);
   }
 }
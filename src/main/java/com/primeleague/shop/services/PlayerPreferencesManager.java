@@ -2,6 +2,7 @@ package com.primeleague.shop.services;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.utils.Cleanable;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -10,7 +11,7 @@ import java.io.File;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.file.FileConfiguration;
 
-public class PlayerPreferencesManager {
+public class PlayerPreferencesManager implements Cleanable {
   private final PrimeLeagueShopPlugin plugin;
   private final Map<String, PlayerPreferences> preferencesCache;
   private final File dataFile;
@@ -154,7 +155,8 @@ public class PlayerPreferencesManager {
   /**
    * Executa limpeza geral dos caches
    */
-  public void runCacheCleanup() {
+  @Override
+  public void cleanup() {
     long now = System.currentTimeMillis();
     synchronized (preferencesCache) {
       preferencesCache.entrySet().removeIf(entry -> {
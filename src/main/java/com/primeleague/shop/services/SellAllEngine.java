@@ -0,0 +1,174 @@
+package com.primeleague.shop.services;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.models.Transaction;
+import com.primeleague.shop.economy.EconomyResult;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vende de uma vez todos os itens vendáveis do inventário de um jogador
+ *
+ * O inventário é classificado em uma única passada, os itens são removidos
+ * com um único setContents e o pagamento é feito com um único depósito.
+ * O inventário só é alterado se o depósito for aceito. O valor de cada item
+ * é calculado uma vez sobre a quantidade total vendida, então vender tudo de
+ * uma vez passa pela curva de preço e pelas faixas de volume.
+ */
+public class SellAllEngine {
+
+  private final PrimeLeagueShopPlugin plugin;
+
+  /**
+   * Resultado de uma venda em massa
+   */
+  public static class SellAllResult {
+    private final Map<ShopItem, Integer> soldItems;
+    private final Map<ShopItem, Double> itemValues;
+    private final double totalValue;
+    private final boolean success;
+
+    SellAllResult(Map<ShopItem, Integer> soldItems, Map<ShopItem, Double> itemValues, double totalValue,
+        boolean success) {
+      this.soldItems = soldItems;
+      this.itemValues = itemValues;
+      this.totalValue = totalValue;
+      this.success = success;
+    }
+
+    /**
+     * Itens vendidos e suas quantidades, na ordem em que foram encontrados
+     */
+    public Map<ShopItem, Integer> getSoldItems() {
+      return Collections.unmodifiableMap(soldItems);
+    }
+
+    /**
+     * Valor pago por todas as unidades de um item nesta venda
+     */
+    public double getItemValue(ShopItem item) {
+      Double value = itemValues.get(item);
+      return value != null ? value : 0.0;
+    }
+
+    public double getTotalValue() {
+      return totalValue;
+    }
+
+    /**
+     * Se o depósito foi aceito e os itens foram removidos
+     */
+    public boolean isSuccess() {
+      return success;
+    }
+
+    /**
+     * Se não havia nada vendável no inventário
+     */
+    public boolean isEmpty() {
+      return soldItems.isEmpty();
+    }
+  }
+
+  public SellAllEngine(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Vende todos os itens do inventário que a loja compra
+   *
+   * @param player Jogador vendendo
+   * @return Resultado da venda
+   */
+  public SellAllResult sellAll(Player player) {
+    ShopManager shopManager = plugin.getShopManager();
+    PlayerInventory inventory = player.getInventory();
+    ItemStack[] contents = inventory.getContents();
+
+    Map<ShopItem, Integer> soldItems = new LinkedHashMap<>();
+    Map<ShopItem, Double> itemValues = new HashMap<>();
+    double totalValue = 0.0;
+
+    // Passada única: classifica cada slot e já marca para remoção
+    for (int i = 0; i < contents.length; i++) {
+      ItemStack stack = contents[i];
+      if (stack == null) {
+        continue;
+      }
+
+      ShopItem shopItem = shopManager.getItemByStack(stack);
+      if (shopItem == null || shopItem.getSellPrice() <= 0) {
+        continue;
+      }
+
+      Integer current = soldItems.get(shopItem);
+      soldItems.put(shopItem, current == null ? stack.getAmount() : current + stack.getAmount());
+      contents[i] = null;
+    }
+
+    // Um cálculo por item sobre a quantidade total, não por pilha
+    Settlement settlement = new Settlement();
+    for (Map.Entry<ShopItem, Integer> entry : soldItems.entrySet()) {
+      double value = shopManager.calculatePrice(player, entry.getKey(), entry.getValue(), false);
+      itemValues.put(entry.getKey(), value);
+      settlement.addSale(entry.getKey(), entry.getValue(), value);
+      totalValue += value;
+    }
+
+    if (soldItems.isEmpty()) {
+      return new SellAllResult(soldItems, itemValues, 0.0, false);
+    }
+
+    // Paga antes de mexer no inventário; se falhar, nada é removido
+    EconomyResult response = plugin.getEconomyService().settle(player, settlement);
+    if (!response.isSuccess()) {
+      return new SellAllResult(soldItems, itemValues, totalValue, false);
+    }
+
+    inventory.setContents(contents);
+    recordTransactions(player, soldItems, itemValues);
+
+    return new SellAllResult(soldItems, itemValues, totalValue, true);
+  }
+
+  /**
+   * Registra todas as vendas em um único lote no histórico
+   */
+  private void recordTransactions(Player player, Map<ShopItem, Integer> soldItems,
+      Map<ShopItem, Double> itemValues) {
+    DynamicPricingService pricing = plugin.getPricingService();
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    List<Transaction> transactions = new ArrayList<>(soldItems.size());
+
+    for (Map.Entry<ShopItem, Integer> entry : soldItems.entrySet()) {
+      Transaction transaction = new Transaction(
+          player.getName(),
+          entry.getKey(),
+          entry.getValue(),
+          itemValues.get(entry.getKey()) / entry.getValue(),
+          Transaction.TransactionType.SELL,
+          now
+      );
+      transaction.markSuccessful();
+      transactions.add(transaction);
+      plugin.getRankingManager().addTransaction(transaction);
+
+      if (pricing != null) {
+        pricing.updatePrice(entry.getKey(), entry.getValue(), false);
+        pricing.recordVolume(player.getUniqueId(), entry.getKey(), entry.getValue(), false);
+      }
+    }
+
+    plugin.getTransactionHistory().addTransactions(transactions);
+  }
+}
@@ -0,0 +1,89 @@
+package com.primeleague.shop.services;
+
+import com.primeleague.shop.models.ShopItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Linhas de uma operação com vários itens, liquidadas de uma só vez
+ *
+ * Compras e vendas são somadas em um único valor líquido, então a
+ * operação inteira custa no máximo uma chamada à economia.
+ */
+public class Settlement {
+
+  /**
+   * Uma linha da operação
+   */
+  public static final class Line {
+    private final ShopItem item;
+    private final int quantity;
+    private final double amount;
+    private final boolean buying;
+
+    Line(ShopItem item, int quantity, double amount, boolean buying) {
+      this.item = item;
+      this.quantity = quantity;
+      this.amount = amount;
+      this.buying = buying;
+    }
+
+    public ShopItem getItem() {
+      return item;
+    }
+
+    public int getQuantity() {
+      return quantity;
+    }
+
+    /**
+     * Valor total da linha, sempre positivo
+     */
+    public double getAmount() {
+      return amount;
+    }
+
+    public boolean isBuying() {
+      return buying;
+    }
+  }
+
+  private final List<Line> lines = new ArrayList<>();
+  private double debit;
+  private double credit;
+
+  /**
+   * Adiciona uma compra: o jogador paga o valor
+   */
+  public void addPurchase(ShopItem item, int quantity, double amount) {
+    lines.add(new Line(item, quantity, amount, true));
+    debit += amount;
+  }
+
+  /**
+   * Adiciona uma venda: o jogador recebe o valor
+   */
+  public void addSale(ShopItem item, int quantity, double amount) {
+    lines.add(new Line(item, quantity, amount, false));
+    credit += amount;
+  }
+
+  public List<Line> getLines() {
+    return Collections.unmodifiableList(lines);
+  }
+
+  /**
+   * Valor líquido da operação
+   *
+   * @return Positivo se o jogador paga, negativo se recebe
+   */
+  public double getNetAmount() {
+    return debit - credit;
+  }
+
+  public boolean isEmpty() {
+    return lines.isEmpty();
+  }
+}
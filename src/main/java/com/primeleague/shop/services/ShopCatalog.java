@@ -0,0 +1,140 @@
+package com.primeleague.shop.services;
+
+import com.primeleague.shop.models.ShopCategory;
+import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.utils.ShopItemIndex;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retrato imutável do catálogo da loja
+ *
+ * É montado por completo antes de ser publicado e nunca mais é alterado,
+ * então pode ser lido de qualquer thread sem sincronização. Um reload cria
+ * um novo catálogo em vez de modificar o atual.
+ */
+public final class ShopCatalog {
+
+  private final long version;
+  private final List<ShopCategory> categories;
+  private final Map<String, ShopItem> itemsById;
+  private final Map<String, List<ShopItem>> itemsByCategory;
+  private final ShopItemIndex itemIndex;
+  private final ShopItem[] searchItems;
+  private final String[] searchNames;
+
+  private ShopCatalog(long version, List<ShopCategory> categories, Map<String, ShopItem> itemsById,
+      Map<String, List<ShopItem>> itemsByCategory, ShopItemIndex itemIndex, ShopItem[] searchItems,
+      String[] searchNames) {
+    this.version = version;
+    this.categories = categories;
+    this.itemsById = itemsById;
+    this.itemsByCategory = itemsByCategory;
+    this.itemIndex = itemIndex;
+    this.searchItems = searchItems;
+    this.searchNames = searchNames;
+  }
+
+  /**
+   * Monta um catálogo a partir das categorias carregadas
+   *
+   * @param version    Versão do catálogo, crescente a cada reload
+   * @param categories Categorias carregadas do shop.yml
+   * @return Catálogo pronto para publicação
+   */
+  public static ShopCatalog build(long version, List<ShopCategory> categories) {
+    Map<String, ShopItem> itemsById = new HashMap<>();
+    Map<String, List<ShopItem>> itemsByCategory = new LinkedHashMap<>();
+    List<ShopItem> allItems = new ArrayList<>();
+
+    for (ShopCategory category : categories) {
+      category.lockItems();
+      List<ShopItem> categoryItems = category.getItems();
+      for (ShopItem item : categoryItems) {
+        itemsById.put(item.getName().toLowerCase(), item);
+      }
+      itemsByCategory.put(category.getName(), categoryItems);
+      allItems.addAll(categoryItems);
+    }
+
+    // Nomes em minúsculas calculados uma vez para a pesquisa
+    ShopItem[] searchItems = allItems.toArray(new ShopItem[0]);
+    String[] searchNames = new String[searchItems.length];
+    for (int i = 0; i < searchItems.length; i++) {
+      searchNames[i] = searchItems[i].getName().toLowerCase();
+    }
+
+    return new ShopCatalog(
+        version,
+        Collections.unmodifiableList(new ArrayList<>(categories)),
+        Collections.unmodifiableMap(itemsById),
+        Collections.unmodifiableMap(itemsByCategory),
+        ShopItemIndex.build(allItems), // Para material/data repetidos, vale o primeiro item
+        searchItems,
+        searchNames);
+  }
+
+  /**
+   * Catálogo vazio, usado antes do primeiro carregamento
+   */
+  public static ShopCatalog empty() {
+    return build(0L, Collections.<ShopCategory>emptyList());
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public List<ShopCategory> getCategories() {
+    return categories;
+  }
+
+  public ShopItem getItemById(String itemId) {
+    return itemsById.get(itemId.toLowerCase());
+  }
+
+  public List<ShopItem> getItemsByCategory(String category) {
+    List<ShopItem> items = itemsByCategory.get(category);
+    return items != null ? items : Collections.<ShopItem>emptyList();
+  }
+
+  public List<String> getCategoryNames() {
+    return new ArrayList<>(itemsByCategory.keySet());
+  }
+
+  public ShopItem getItem(Material material, byte data) {
+    return itemIndex.get(material, data);
+  }
+
+  public ShopItem getItem(ItemStack stack) {
+    return itemIndex.get(stack);
+  }
+
+  public int getItemCount() {
+    return searchItems.length;
+  }
+
+  /**
+   * Pesquisa itens cujo nome contém o termo, sem diferenciar maiúsculas
+   *
+   * @param query Termo pesquisado
+   * @return Itens encontrados, na ordem do catálogo
+   */
+  public List<ShopItem> search(String query) {
+    String needle = query.toLowerCase();
+    List<ShopItem> results = new ArrayList<>();
+    for (int i = 0; i < searchNames.length; i++) {
+      if (searchNames[i].contains(needle)) {
+        results.add(searchItems[i]);
+      }
+    }
+    return results;
+  }
+}
@@ -3,73 +3,49 @@ package com.primeleague.shop.services;
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.events.ShopPreTransactionEvent;
 import com.primeleague.shop.events.ShopTransactionEvent;
+import com.primeleague.shop.models.ShopAction;
 import com.primeleague.shop.models.ShopCategory;
 import com.primeleague.shop.models.ShopItem;
 import com.primeleague.shop.models.Transaction;
+import com.primeleague.shop.storage.dao.TransactionBatchWriter;
 import com.primeleague.shop.storage.dao.TransactionDAO;
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.TextUtils;
-import com.primeleague.shop.utils.Cleanable;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
-import net.milkbowl.vault.economy.Economy;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
-import java.sql.SQLException;
 
 /**
  * Gerencia as operações da loja, incluindo compra, venda e gerenciamento de itens
  */
-public class ShopManager implements Cleanable {
+public class ShopManager {
 
     private final PrimeLeagueShopPlugin plugin;
-    private final Economy economy;
-    private final List<ShopCategory> categories;
-    private final Map<String, CachedShopItem> itemCache;
-    private final Map<String, ShopItem> itemsById;
-    private final Map<String, List<ShopItem>> itemsByCategory;
+    private final TradeExecutor tradeExecutor;
+    private final AtomicLong catalogVersion;
+    private volatile ShopCatalog catalog;
     private TransactionDAO transactionDAO;
+    private TransactionBatchWriter transactionWriter;
 
-    /**
-     * Classe interna para cache de itens
-     */
-    private static class CachedShopItem {
-        private final ShopItem item;
-        private final long lastAccess;
-
-        public CachedShopItem(ShopItem item) {
-            this.item = item;
-            this.lastAccess = System.currentTimeMillis();
-        }
-
-        public ShopItem getItem() {
-            return item;
-        }
-
-        public long getLastAccess() {
-            return lastAccess;
-        }
-    }
-
-    public ShopManager(PrimeLeagueShopPlugin plugin, Economy economy) {
+    public ShopManager(PrimeLeagueShopPlugin plugin) {
         this.plugin = plugin;
-        this.economy = economy;
-        this.categories = new ArrayList<>();
-        this.itemCache = new HashMap<>();
-        this.itemsById = new HashMap<>();
-        this.itemsByCategory = new HashMap<>();
+        this.tradeExecutor = new TradeExecutor(plugin);
+        this.catalogVersion = new AtomicLong();
+        this.catalog = ShopCatalog.empty();
 
         reloadCategories();
 
-        if (plugin.getConfigLoader().shouldLogToDatabase()) {
+        if (plugin.isDatabaseEnabled()) {
             try {
                 this.transactionDAO = new TransactionDAO(plugin);
+                this.transactionWriter = new TransactionBatchWriter(plugin, transactionDAO);
+                this.transactionWriter.start();
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Erro ao inicializar o banco de dados", e);
             }
@@ -77,41 +53,144 @@ public class ShopManager implements Cleanable {
     }
 
     /**
-     * Recarrega as categorias e itens da loja
+     * Recarrega as categorias e itens da loja na thread atual
      */
     public void reloadCategories() {
-        categories.clear();
-        itemCache.clear();
-        itemsById.clear();
-        itemsByCategory.clear();
+        publish(buildCatalog());
+    }
 
+    /**
+     * Recarrega as categorias e itens da loja fora da thread principal
+     *
+     * O catálogo atual continua servindo as consultas até o novo estar
+     * completo; se o carregamento falhar, ele é mantido. Com recargas
+     * sobrepostas vale a iniciada por último, mesmo que termine antes.
+     *
+     * @param callback Executado na thread principal após a troca (pode ser null)
+     */
+    public void reloadCategoriesAsync(final Runnable callback) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                publish(buildCatalog());
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao recarregar a loja, mantendo o catálogo atual", e);
+            }
+
+            if (callback != null) {
+                plugin.getServer().getScheduler().runTask(plugin, callback);
+            }
+        });
+    }
+
+    private ShopCatalog buildCatalog() {
+        // Versão reservada antes de ler a configuração, na ordem em que as recargas começam
+        long version = catalogVersion.incrementAndGet();
         List<ShopCategory> loadedCategories = plugin.getConfigLoader().loadShop();
-        categories.addAll(loadedCategories);
-
-        for (ShopCategory category : categories) {
-            List<ShopItem> categoryItems = new ArrayList<>();
-            for (ShopItem item : category.getItems()) {
-                String itemId = item.getName().toLowerCase();
-                itemCache.put(itemId, new CachedShopItem(item));
-                itemsById.put(itemId, item);
-                categoryItems.add(item);
+
+        // Liga cada item ao seu estado de mercado antes de montar e publicar o catálogo
+        DynamicPricingService pricing = plugin.getPricingService();
+        if (pricing != null) {
+            List<ShopItem> items = new ArrayList<>();
+            for (ShopCategory category : loadedCategories) {
+                items.addAll(category.getItems());
             }
-            itemsByCategory.put(category.getName(), categoryItems);
+            pricing.bindItems(items);
         }
+        return ShopCatalog.build(version, loadedCategories);
+    }
 
+    /**
+     * Troca o catálogo, a menos que um mais novo já tenha sido publicado
+     */
+    private synchronized void publish(ShopCatalog newCatalog) {
+        if (newCatalog.getVersion() <= catalog.getVersion()) {
+            plugin.getLogger().info(String.format("Recarga %d ignorada: a versão %d já foi publicada",
+                newCatalog.getVersion(), catalog.getVersion()));
+            return;
+        }
+        catalog = newCatalog;
         plugin.getLogger().info(String.format("Carregadas %d categorias e %d itens da loja",
-            categories.size(), itemCache.size()));
+            newCatalog.getCategories().size(), newCatalog.getItemCount()));
+    }
+
+    /**
+     * Obtém o catálogo atual
+     *
+     * Guarde a referência retornada para fazer várias consultas sobre a
+     * mesma versão do catálogo.
+     */
+    public ShopCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Preço unitário efetivo, já com o preço dinâmico aplicado
+     */
+    public double getUnitPrice(ShopItem item, boolean isBuying) {
+        DynamicPricingService pricing = plugin.getPricingService();
+        if (pricing != null) {
+            return pricing.getPrice(item, isBuying);
+        }
+        return isBuying ? item.getBuyPrice() : item.getSellPrice();
+    }
+
+    /**
+     * Preço efetivo de uma quantidade do item, com curva de demanda e faixas de volume
+     */
+    public double calculatePrice(ShopItem item, int quantity, boolean isBuying) {
+        return calculatePrice(null, item, quantity, isBuying);
+    }
+
+    /**
+     * Preço efetivo de uma quantidade do item para um jogador, com as faixas
+     * de volume contadas a partir do que ele negociou recentemente
+     *
+     * @param player Jogador negociando, ou null para ignorar o volume recente
+     */
+    public double calculatePrice(Player player, ShopItem item, int quantity, boolean isBuying) {
+        DynamicPricingService pricing = plugin.getPricingService();
+        if (pricing != null) {
+            return pricing.getTotalPrice(player != null ? player.getUniqueId() : null, item, quantity, isBuying);
+        }
+        return item.calculatePrice(quantity, isBuying);
+    }
+
+    /**
+     * Cria o ícone de exibição de um item com os preços efetivos
+     */
+    public ItemStack createDisplayItem(ShopItem item, String currencySymbol) {
+        return item.createDisplayItem(currencySymbol, getUnitPrice(item, true), getUnitPrice(item, false));
+    }
+
+    /**
+     * Registra a demanda e o volume do jogador de uma transação concluída
+     */
+    private void recordDemand(Player player, ShopItem item, int quantity, boolean isBuy) {
+        DynamicPricingService pricing = plugin.getPricingService();
+        if (pricing != null) {
+            pricing.updatePrice(item, quantity, isBuy);
+            pricing.recordVolume(player.getUniqueId(), item, quantity, isBuy);
+        }
+    }
+
+    /**
+     * Passa a ação pela cadeia de guardas, avisando o jogador se recusada
+     *
+     * @return true se a ação pode prosseguir
+     */
+    public boolean allowAction(Player player, ShopAction action) {
+        return plugin.getGuardChain().allow(player, action);
     }
 
     /**
      * Processa uma transação de compra
      */
     public boolean processPurchase(Player player, ShopItem item, int quantity) {
-        if (!validatePurchase(player, item, quantity)) {
+        if (!allowAction(player, ShopAction.BUY) || !validatePurchase(player, item, quantity)) {
             return false;
         }
 
-        double totalPrice = item.calculatePrice(quantity, true);
+        double totalPrice = calculatePrice(player, item, quantity, true);
 
         // Chama evento de pré-transação
         ShopPreTransactionEvent preEvent = new ShopPreTransactionEvent(
@@ -127,12 +206,13 @@ public class ShopManager implements Cleanable {
             return false;
         }
 
-        // Processa a compra
-        economy.withdrawPlayer(player.getName(), totalPrice);
-        List<ItemStack> items = item.createActualItems(quantity);
-        for (ItemStack stack : items) {
-            player.getInventory().addItem(stack);
+        // Cobra e entrega os itens, desfazendo tudo se alguma etapa falhar
+        TradeExecutor.TradeResult result = tradeExecutor.buy(player, item, quantity, totalPrice);
+        if (result != TradeExecutor.TradeResult.SUCCESS) {
+            sendFailure(player, result, totalPrice);
+            return false;
         }
+        recordDemand(player, item, quantity, true);
 
         // Registra a transação
         Transaction transaction = new Transaction(
@@ -161,11 +241,11 @@ public class ShopManager implements Cleanable {
      * Processa uma transação de venda
      */
     public boolean processSale(Player player, ShopItem item, int quantity) {
-        if (!validateSale(player, item, quantity)) {
+        if (!allowAction(player, ShopAction.SELL) || !validateSale(player, item, quantity)) {
             return false;
         }
 
-        double totalPrice = item.calculatePrice(quantity, false);
+        double totalPrice = calculatePrice(player, item, quantity, false);
 
         // Chama evento de pré-transação
         ShopPreTransactionEvent preEvent = new ShopPreTransactionEvent(
@@ -181,9 +261,13 @@ public class ShopManager implements Cleanable {
             return false;
         }
 
-        // Processa a venda
-        economy.depositPlayer(player.getName(), totalPrice);
-        removeItems(player, item, quantity);
+        // Remove os itens e paga, devolvendo os itens se o pagamento falhar
+        TradeExecutor.TradeResult result = tradeExecutor.sell(player, item, quantity, totalPrice);
+        if (result != TradeExecutor.TradeResult.SUCCESS) {
+            sendFailure(player, result, totalPrice);
+            return false;
+        }
+        recordDemand(player, item, quantity, false);
 
         // Registra a transação
         Transaction transaction = new Transaction(
@@ -218,13 +302,6 @@ public class ShopManager implements Cleanable {
             return false;
         }
 
-        double totalPrice = item.calculatePrice(quantity, true);
-        if (!economy.has(player.getName(), totalPrice)) {
-            player.sendMessage(TextUtils.colorize(ShopConstants.MSG_NOT_ENOUGH_MONEY
-                .replace("{price}", economy.format(totalPrice))));
-            return false;
-        }
-
         return true;
     }
 
@@ -247,23 +324,24 @@ public class ShopManager implements Cleanable {
     }
 
     /**
-     * Remove itens do inventário do jogador
+     * Informa ao jogador por que a troca não foi concluída
      */
-    private void removeItems(Player player, ShopItem item, int quantity) {
-        int remaining = quantity;
-        ItemStack[] contents = player.getInventory().getContents();
-
-        for (int i = 0; i < contents.length && remaining > 0; i++) {
-            ItemStack stack = contents[i];
-            if (item.matches(stack)) {
-                int amount = Math.min(remaining, stack.getAmount());
-                if (amount == stack.getAmount()) {
-                    player.getInventory().setItem(i, null);
-                } else {
-                    stack.setAmount(stack.getAmount() - amount);
-                }
-                remaining -= amount;
-            }
+    private void sendFailure(Player player, TradeExecutor.TradeResult result, double totalPrice) {
+        switch (result) {
+            case INSUFFICIENT_FUNDS:
+                player.sendMessage(TextUtils.colorize(ShopConstants.MSG_NOT_ENOUGH_MONEY
+                    .replace("{price}", plugin.getEconomyService().format(totalPrice))));
+                break;
+            case INSUFFICIENT_ITEMS:
+                player.sendMessage(TextUtils.colorize(ShopConstants.MSG_NOT_ENOUGH_ITEMS));
+                break;
+            case INVENTORY_FULL:
+                player.sendMessage(TextUtils.colorize(ShopConstants.MSG_INVENTORY_FULL));
+                break;
+            default:
+                player.sendMessage(TextUtils.colorize(plugin.getConfigLoader().getMessage("transaction_failed",
+                    "&cNão foi possível concluir a transação.")));
+                break;
         }
     }
 
@@ -284,16 +362,11 @@ public class ShopManager implements Cleanable {
     }
 
     /**
-     * Registra uma transação no banco de dados
+     * Enfileira uma transação para gravação assíncrona no banco de dados
      */
     private void logTransaction(Transaction transaction) {
-        if (transactionDAO != null) {
-            try {
-                transactionDAO.saveTransaction(transaction);
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE,
-                    String.format(ShopConstants.LOG_DATABASE_ERROR, e.getMessage()), e);
-            }
+        if (transactionWriter != null) {
+            transactionWriter.enqueue(transaction);
         }
     }
 
@@ -301,88 +374,73 @@ public class ShopManager implements Cleanable {
      * Procura um item pelo nome
      */
     public ShopItem findItemByName(String itemName) {
-        CachedShopItem cached = itemCache.get(itemName.toLowerCase());
-        return cached != null ? cached.getItem() : null;
+        return catalog.getItemById(itemName);
     }
 
     /**
      * Obtém um item pelo ID
      */
     public ShopItem getItemById(String itemId) {
-        return itemsById.get(itemId.toLowerCase());
+        return catalog.getItemById(itemId);
     }
 
     /**
      * Obtém itens de uma categoria
      */
     public List<ShopItem> getItemsByCategory(String category) {
-        return itemsByCategory.getOrDefault(category, new ArrayList<>());
+        return catalog.getItemsByCategory(category);
     }
 
     /**
      * Obtém nomes das categorias
      */
     public List<String> getCategoryNames() {
-        return new ArrayList<>(itemsByCategory.keySet());
+        return catalog.getCategoryNames();
     }
 
     /**
      * Obtém todas as categorias
      */
     public List<ShopCategory> getCategories() {
-        return categories;
-    }
-
-    /**
-     * Limpa dados de cache de um jogador
-     */
-    public void cleanupPlayerData(String playerName) {
-        itemCache.remove(playerName.toLowerCase());
-    }
-
-    @Override
-    public void cleanup() {
-        long now = System.currentTimeMillis();
-        synchronized (itemCache) {
-            itemCache.entrySet().removeIf(entry ->
-                now - entry.getValue().getLastAccess() > 3600000); // 1 hora
-        }
+        return catalog.getCategories();
     }
 
     /**
      * Desliga o gerenciador
      */
     public void shutdown() {
-        if (transactionDAO != null) {
-            transactionDAO.closeConnection();
+        // Grava as transações pendentes antes de fechar a conexão
+        if (transactionWriter != null) {
+            transactionWriter.shutdown();
         }
-        itemsById.clear();
-        itemsByCategory.clear();
-        itemCache.clear();
-        categories.clear();
     }
 
     /**
-     * Executa a limpeza do cache
+     * Obtém um item pelo material e data value
+     * @param material Nome do material
+     * @param data Data value
+     * @return Item encontrado ou null se não existir
      */
-    public void runCacheCleanup() {
-        cleanup();
+    public ShopItem getItemByMaterialAndData(String material, byte data) {
+        return getItemByMaterial(Material.getMaterial(material), data);
     }
 
     /**
      * Obtém um item pelo material e data value
-     * @param material Nome do material
+     * @param material Material
      * @param data Data value
      * @return Item encontrado ou null se não existir
      */
-    public ShopItem getItemByMaterialAndData(String material, byte data) {
-        for (ShopCategory category : categories) {
-            for (ShopItem item : category.getItems()) {
-                if (item.getMaterial().name().equals(material) && item.getData() == data) {
-                    return item;
-                }
-            }
-        }
-        return null;
+    public ShopItem getItemByMaterial(Material material, byte data) {
+        return catalog.getItem(material, data);
+    }
+
+    /**
+     * Obtém o item da loja correspondente a um ItemStack
+     * @param stack ItemStack do inventário
+     * @return Item encontrado ou null se não existir
+     */
+    public ShopItem getItemByStack(ItemStack stack) {
+        return catalog.getItem(stack);
     }
 }
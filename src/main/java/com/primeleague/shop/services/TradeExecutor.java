@@ -0,0 +1,175 @@
+package com.primeleague.shop.services;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.economy.EconomyResult;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+/**
+ * Executa compras e vendas como uma transação
+ *
+ * Cada operação segue validar → reservar → alterar o inventário →
+ * confirmar ou desfazer. O inventário é alterado em um rascunho e a
+ * validação usa o saldo em cache do {@link EconomyService}, então cada troca
+ * faz uma única chamada à economia e o rascunho só é aplicado se ela for
+ * aceita; se falhar, o inventário real nunca foi tocado.
+ */
+public class TradeExecutor {
+
+  private final PrimeLeagueShopPlugin plugin;
+
+  /**
+   * Resultado de uma troca
+   */
+  public enum TradeResult {
+    SUCCESS,
+    INSUFFICIENT_FUNDS,
+    INSUFFICIENT_ITEMS,
+    INVENTORY_FULL,
+    ECONOMY_FAILURE
+  }
+
+  public TradeExecutor(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Compra: cobra o jogador e entrega os itens
+   *
+   * @param player     Jogador comprando
+   * @param item       Item comprado
+   * @param quantity   Quantidade
+   * @param totalPrice Preço total já calculado
+   * @return Resultado da troca
+   */
+  public TradeResult buy(Player player, ShopItem item, int quantity, double totalPrice) {
+    Settlement settlement = new Settlement();
+    settlement.addPurchase(item, quantity, totalPrice);
+    return execute(player, settlement);
+  }
+
+  /**
+   * Venda: remove os itens e paga o jogador
+   *
+   * @param player     Jogador vendendo
+   * @param item       Item vendido
+   * @param quantity   Quantidade
+   * @param totalPrice Valor total já calculado
+   * @return Resultado da troca
+   */
+  public TradeResult sell(Player player, ShopItem item, int quantity, double totalPrice) {
+    Settlement settlement = new Settlement();
+    settlement.addSale(item, quantity, totalPrice);
+    return execute(player, settlement);
+  }
+
+  /**
+   * Executa todas as linhas de uma operação como uma única troca
+   *
+   * As alterações de inventário são montadas em um rascunho; o valor
+   * líquido é liquidado com uma única chamada à economia e só então o
+   * rascunho é aplicado. Se qualquer linha falhar, nada muda. Usado para
+   * checkout de carrinho e vendas com vários itens.
+   *
+   * @param player     Jogador
+   * @param settlement Linhas da operação
+   * @return Resultado da troca
+   */
+  public TradeResult execute(Player player, Settlement settlement) {
+    PlayerInventory inventory = player.getInventory();
+    ItemStack[] contents = copyOf(inventory.getContents());
+
+    // Valida e aplica todas as linhas no rascunho, sem tocar na economia
+    for (Settlement.Line line : settlement.getLines()) {
+      if (line.isBuying()) {
+        if (!place(contents, line.getItem(), line.getQuantity())) {
+          return TradeResult.INVENTORY_FULL;
+        }
+      } else if (!take(contents, line.getItem(), line.getQuantity())) {
+        return TradeResult.INSUFFICIENT_ITEMS;
+      }
+    }
+
+    // Uma única chamada à economia para a operação inteira
+    EconomyResult response = plugin.getEconomyService().settle(player, settlement);
+    if (!response.isSuccess()) {
+      double net = settlement.getNetAmount();
+      return net > 0 && response.getBalance() < net ? TradeResult.INSUFFICIENT_FUNDS : TradeResult.ECONOMY_FAILURE;
+    }
+
+    inventory.setContents(contents);
+    return TradeResult.SUCCESS;
+  }
+
+  /**
+   * Coloca unidades do item no rascunho, completando pilhas antes de usar slots vazios
+   *
+   * @return false se não couber tudo
+   */
+  private static boolean place(ItemStack[] contents, ShopItem item, int quantity) {
+    int maxStack = item.getMaterial().getMaxStackSize();
+    int remaining = quantity;
+
+    for (int i = 0; i < contents.length && remaining > 0; i++) {
+      ItemStack stack = contents[i];
+      if (stack != null && stack.getType() == item.getMaterial()
+          && stack.getDurability() == item.getData()
+          && !stack.hasItemMeta()
+          && stack.getAmount() < maxStack) {
+        int added = Math.min(remaining, maxStack - stack.getAmount());
+        stack.setAmount(stack.getAmount() + added);
+        remaining -= added;
+      }
+    }
+
+    for (int i = 0; i < contents.length && remaining > 0; i++) {
+      if (contents[i] == null || contents[i].getType() == Material.AIR) {
+        int added = Math.min(remaining, maxStack);
+        contents[i] = new ItemStack(item.getMaterial(), added, item.getData());
+        remaining -= added;
+      }
+    }
+
+    return remaining == 0;
+  }
+
+  /**
+   * Remove unidades do item do rascunho
+   *
+   * @return false se não houver unidades suficientes
+   */
+  private static boolean take(ItemStack[] contents, ShopItem item, int quantity) {
+    int remaining = quantity;
+
+    for (int i = 0; i < contents.length && remaining > 0; i++) {
+      ItemStack stack = contents[i];
+      if (!item.matches(stack)) {
+        continue;
+      }
+
+      int amount = Math.min(remaining, stack.getAmount());
+      if (amount == stack.getAmount()) {
+        contents[i] = null;
+      } else {
+        stack.setAmount(stack.getAmount() - amount);
+      }
+      remaining -= amount;
+    }
+
+    return remaining == 0;
+  }
+
+  /**
+   * Cópia independente do inventário, usada como rascunho
+   */
+  private static ItemStack[] copyOf(ItemStack[] contents) {
+    ItemStack[] copy = new ItemStack[contents.length];
+    for (int i = 0; i < contents.length; i++) {
+      copy[i] = contents[i] != null ? contents[i].clone() : null;
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,88 @@
+package com.primeleague.shop.services;
+
+import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.utils.CacheManager;
+import com.primeleague.shop.utils.Cleanable;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Volume recente negociado por jogador, item e lado (compra ou venda)
+ *
+ * As faixas de volume são aplicadas a partir deste volume, não da unidade
+ * zero de cada transação, então dividir uma venda grande em várias pequenas
+ * não escapa das faixas. O volume decai com meia-vida configurável e some
+ * do cache quando já não afeta as faixas; como fica fora da sessão, sair e
+ * voltar não o zera.
+ */
+public class TradeVolumeTracker implements Cleanable {
+
+  // Meias-vidas após as quais o volume restante (< 1%) é descartado
+  private static final int RETENTION_HALF_LIVES = 7;
+
+  /**
+   * Volume registrado em um instante; imutável
+   */
+  private static final class Volume {
+    private final double units;
+    private final long timestamp;
+
+    Volume(double units, long timestamp) {
+      this.units = units;
+      this.timestamp = timestamp;
+    }
+  }
+
+  private final CacheManager<String, Volume> volumes;
+  private final double decayPerMs;
+
+  /**
+   * @param halfLifeSeconds Segundos para o volume cair pela metade
+   * @param maxEntries      Número máximo de pares jogador/item guardados
+   */
+  public TradeVolumeTracker(long halfLifeSeconds, int maxEntries) {
+    long halfLifeMs = TimeUnit.SECONDS.toMillis(Math.max(1L, halfLifeSeconds));
+    this.decayPerMs = Math.log(2) / halfLifeMs;
+    this.volumes = new CacheManager<>(maxEntries, halfLifeMs * RETENTION_HALF_LIVES, TimeUnit.MILLISECONDS);
+  }
+
+  private static String key(UUID playerId, ShopItem item, boolean isBuying) {
+    return playerId + ":" + item.getIndexKey() + (isBuying ? ":b" : ":s");
+  }
+
+  private double decayed(Volume volume, long now) {
+    if (now <= volume.timestamp) {
+      return volume.units;
+    }
+    return volume.units * Math.exp(-decayPerMs * (now - volume.timestamp));
+  }
+
+  /**
+   * Unidades já negociadas recentemente, usadas como início das faixas
+   */
+  public int getVolume(UUID playerId, ShopItem item, boolean isBuying) {
+    Volume volume = volumes.get(key(playerId, item, isBuying));
+    return volume != null ? (int) decayed(volume, System.currentTimeMillis()) : 0;
+  }
+
+  /**
+   * Soma uma transação concluída ao volume do jogador
+   */
+  public void record(UUID playerId, ShopItem item, int quantity, boolean isBuying) {
+    if (quantity <= 0) {
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    volumes.compute(key(playerId, item, isBuying), (k, current) ->
+        new Volume((current != null ? decayed(current, now) : 0.0) + quantity, now));
+  }
+
+  /**
+   * Descarta volumes que já não afetam as faixas
+   */
+  @Override
+  public void cleanup() {
+    volumes.cleanup();
+  }
+}
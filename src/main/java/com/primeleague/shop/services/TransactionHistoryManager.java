@@ -1,9 +1,9 @@
 package com.primeleague.shop.services;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.utils.CacheManager;
 import com.primeleague.shop.utils.ShopConstants;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.ArrayList;
 import java.sql.Connection;
@@ -12,11 +12,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 public class TransactionHistoryManager {
   private final PrimeLeagueShopPlugin plugin;
-  private final Map<String, List<Transaction>> memoryCache;
+  private static final int HISTORY_PER_PLAYER = 10;
+
+  // Últimas transações por jogador; as listas são imutáveis e trocadas inteiras
+  private final CacheManager<String, List<Transaction>> memoryCache;
   private final boolean useDatabase;
 
   private static class Transaction {
@@ -39,7 +43,8 @@ public class TransactionHistoryManager {
 
   public TransactionHistoryManager(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.memoryCache = new HashMap<>();
+    this.memoryCache = new CacheManager<>(
+        plugin.getConfig().getInt("settings.transaction.history-cache.max-players", 1000), 0, TimeUnit.SECONDS);
     this.useDatabase = plugin.isDatabaseEnabled();
 
     if (useDatabase) {
@@ -55,14 +60,15 @@ public class TransactionHistoryManager {
         price,
         isBuy);
 
-    // Salva em memória
-    List<Transaction> playerHistory = memoryCache.computeIfAbsent(playerName, k -> new ArrayList<>());
-    playerHistory.add(0, transaction);
-
-    // Limita o cache a 10 transações por jogador
-    while (playerHistory.size() > 10) {
-      playerHistory.remove(playerHistory.size() - 1);
-    }
+    // Salva em memória, limitado às últimas transações do jogador
+    memoryCache.compute(playerName, (name, current) -> {
+      List<Transaction> updated = new ArrayList<>(HISTORY_PER_PLAYER);
+      updated.add(transaction);
+      if (current != null) {
+        updated.addAll(current.subList(0, Math.min(current.size(), HISTORY_PER_PLAYER - 1)));
+      }
+      return Collections.unmodifiableList(updated);
+    });
 
     // Salva no banco se disponível
     if (useDatabase) {
@@ -71,7 +77,8 @@ public class TransactionHistoryManager {
   }
 
   public List<Transaction> getPlayerHistory(String playerName) {
-    return new ArrayList<>(memoryCache.getOrDefault(playerName, new ArrayList<>()));
+    List<Transaction> history = memoryCache.get(playerName);
+    return history != null ? new ArrayList<>(history) : new ArrayList<Transaction>();
   }
 
   private void createTable() {
@@ -141,6 +148,6 @@ public class TransactionHistoryManager {
   }
 
   public void shutdown() {
-    memoryCache.clear();
+    memoryCache.invalidateAll();
   }
 }
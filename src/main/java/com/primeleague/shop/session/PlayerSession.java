@@ -0,0 +1,96 @@
+package com.primeleague.shop.session;
+
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Estado da loja de um jogador online
+ *
+ * Criada quando o jogador entra e descartada inteira quando ele sai, então
+ * não há limpeza por mapa. Os valores ficam em slots indexados por
+ * {@link SessionKey}; ler e gravar é seguro em qualquer thread.
+ */
+public final class PlayerSession {
+
+  private final UUID uniqueId;
+  private final String name;
+  private final Player player;
+  private final AtomicReferenceArray<Object> values;
+  private volatile boolean open;
+
+  PlayerSession(Player player) {
+    this.uniqueId = player.getUniqueId();
+    this.name = player.getName();
+    this.player = player;
+    this.values = new AtomicReferenceArray<>(SessionKey.MAX_KEYS);
+    this.open = true;
+  }
+
+  public UUID getUniqueId() {
+    return uniqueId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Player getPlayer() {
+    return player;
+  }
+
+  /**
+   * Se o jogador ainda está online com esta sessão
+   */
+  public boolean isOpen() {
+    return open;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T get(SessionKey<T> key) {
+    return (T) values.get(key.getIndex());
+  }
+
+  public <T> void set(SessionKey<T> key, T value) {
+    values.set(key.getIndex(), value);
+  }
+
+  /**
+   * Obtém o valor ou grava o criado pelo supplier, de forma atômica
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T computeIfAbsent(SessionKey<T> key, Supplier<? extends T> supplier) {
+    int index = key.getIndex();
+    Object current = values.get(index);
+    if (current != null) {
+      return (T) current;
+    }
+
+    T created = supplier.get();
+    if (values.compareAndSet(index, null, created)) {
+      return created;
+    }
+    return (T) values.get(index);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T remove(SessionKey<T> key) {
+    return (T) values.getAndSet(key.getIndex(), null);
+  }
+
+  /**
+   * Remove o valor só se ele ainda for o esperado
+   */
+  public <T> boolean remove(SessionKey<T> key, T expected) {
+    return values.compareAndSet(key.getIndex(), expected, null);
+  }
+
+  void close() {
+    open = false;
+    for (int i = 0; i < values.length(); i++) {
+      values.set(i, null);
+    }
+  }
+}
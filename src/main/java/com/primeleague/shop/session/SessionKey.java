@@ -0,0 +1,50 @@
+package com.primeleague.shop.session;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Identifica um valor guardado na {@link PlayerSession}
+ *
+ * Cada dono de estado por jogador cria suas chaves como constantes; a
+ * chave carrega o índice do valor na sessão, então ler um valor é um
+ * acesso a array, sem mapa.
+ *
+ * @param <T> Tipo do valor
+ */
+public final class SessionKey<T> {
+
+  // Capacidade de cada sessão; aumentar se novas chaves forem criadas
+  static final int MAX_KEYS = 32;
+
+  private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+  private final String name;
+  private final int index;
+
+  private SessionKey(String name, int index) {
+    this.name = name;
+    this.index = index;
+  }
+
+  /**
+   * Cria uma chave; chamar uma vez, em uma constante
+   *
+   * @param name Nome usado em mensagens de erro
+   */
+  public static <T> SessionKey<T> create(String name) {
+    int index = NEXT_INDEX.getAndIncrement();
+    if (index >= MAX_KEYS) {
+      throw new IllegalStateException("Limite de chaves de sessão atingido ao criar " + name);
+    }
+    return new SessionKey<>(name, index);
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,100 @@
+package com.primeleague.shop.session;
+
+import org.bukkit.entity.Player;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sessões dos jogadores online, por UUID
+ *
+ * A sessão é aberta na entrada e fechada na saída. Jogadores que já
+ * estavam online (reload) ganham a sessão na primeira consulta.
+ *
+ * Durante o PlayerQuitEvent o jogador ainda conta como online; por isso o
+ * UUID fica marcado como saindo desde o fechamento até {@link #release}, e
+ * consultas nesse intervalo não recriam a sessão.
+ */
+public class SessionManager {
+
+  private final ConcurrentMap<UUID, PlayerSession> sessions;
+  private final Set<UUID> closing;
+
+  public SessionManager() {
+    this.sessions = new ConcurrentHashMap<>();
+    this.closing = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Abre uma sessão nova, descartando qualquer anterior do mesmo jogador
+   */
+  public PlayerSession open(Player player) {
+    PlayerSession session = new PlayerSession(player);
+    closing.remove(player.getUniqueId());
+    PlayerSession previous = sessions.put(player.getUniqueId(), session);
+    if (previous != null) {
+      previous.close();
+    }
+    return session;
+  }
+
+  /**
+   * Sessão do jogador
+   *
+   * Para um jogador que já saiu ou está saindo, devolve uma sessão avulsa
+   * que não é guardada, para que callbacks atrasados não recriem estado.
+   */
+  public PlayerSession get(Player player) {
+    PlayerSession session = sessions.get(player.getUniqueId());
+    if (session != null) {
+      return session;
+    }
+    if (!player.isOnline() || closing.contains(player.getUniqueId())) {
+      PlayerSession detached = new PlayerSession(player);
+      detached.close();
+      return detached;
+    }
+    return sessions.computeIfAbsent(player.getUniqueId(), k -> new PlayerSession(player));
+  }
+
+  /**
+   * Sessão do jogador, se estiver online
+   */
+  public PlayerSession getIfPresent(UUID uniqueId) {
+    return sessions.get(uniqueId);
+  }
+
+  /**
+   * Fecha a sessão do jogador, liberando todo o seu estado
+   *
+   * O UUID fica marcado como saindo até {@link #release}.
+   */
+  public void close(Player player) {
+    closing.add(player.getUniqueId());
+    PlayerSession session = sessions.remove(player.getUniqueId());
+    if (session != null) {
+      session.close();
+    }
+  }
+
+  /**
+   * Remove a marcação de saída, quando o jogador já não conta como online
+   */
+  public void release(UUID uniqueId) {
+    closing.remove(uniqueId);
+  }
+
+  public void closeAll() {
+    for (PlayerSession session : sessions.values()) {
+      session.close();
+    }
+    sessions.clear();
+    closing.clear();
+  }
+
+  public int size() {
+    return sessions.size();
+  }
+}
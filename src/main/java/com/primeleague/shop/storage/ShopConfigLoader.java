@@ -3,6 +3,7 @@ package com.primeleague.shop.storage;
 import com.primeleague.shop.PrimeLeagueShopPlugin;
 import com.primeleague.shop.models.ShopCategory;
 import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.models.VolumeTiers;
 import com.primeleague.shop.utils.ItemUtils;
 import com.primeleague.shop.utils.ShopConstants;
 import com.primeleague.shop.utils.TextUtils;
@@ -25,7 +26,7 @@ import java.util.logging.Level;
 public class ShopConfigLoader {
 
   private final PrimeLeagueShopPlugin plugin;
-  private FileConfiguration shopConfig;
+  private volatile FileConfiguration shopConfig;
   private FileConfiguration messagesConfig;
   private final Map<String, String> messages;
   private final Map<String, String> guiMessages;
@@ -44,12 +45,13 @@ public class ShopConfigLoader {
   /**
    * Carrega todas as configurações
    *
+   * A loja em si é carregada pelo ShopManager, que monta o catálogo.
+   *
    * @return true se carregou com sucesso
    */
   public boolean loadAll() {
     try {
       loadMessages();
-      loadShop();
       return true;
     } catch (Exception e) {
       plugin.getLogger().log(Level.SEVERE,
@@ -61,15 +63,19 @@ public class ShopConfigLoader {
   /**
    * Carrega as categorias e itens da loja
    *
+   * Pode ser chamado fora da thread principal.
+   *
    * @return Lista de categorias
    */
   public List<ShopCategory> loadShop() {
     File shopFile = new File(plugin.getDataFolder(), "shop.yml");
-    shopConfig = YamlConfiguration.loadConfiguration(shopFile);
+    FileConfiguration config = YamlConfiguration.loadConfiguration(shopFile);
+    shopConfig = config;
 
     List<ShopCategory> categories = new ArrayList<>();
+    VolumeTiers defaultTiers = loadVolumeTiers(config.getConfigurationSection("volume-tiers"));
 
-    ConfigurationSection categoriesSection = shopConfig.getConfigurationSection("categories");
+    ConfigurationSection categoriesSection = config.getConfigurationSection("categories");
     if (categoriesSection == null) {
       plugin.getLogger().log(Level.WARNING,
           String.format(ShopConstants.LOG_CONFIG_ERROR, "Nenhuma categoria encontrada no arquivo shop.yml"));
@@ -87,8 +93,11 @@ public class ShopConfigLoader {
       byte data = (byte) categorySection.getInt("data", 0);
       int slot = categorySection.getInt("slot", 0);
       String permission = categorySection.getString("permission", "");
+      VolumeTiers tiers = categorySection.isConfigurationSection("volume-tiers")
+          ? loadVolumeTiers(categorySection.getConfigurationSection("volume-tiers"))
+          : defaultTiers;
 
-      ShopCategory category = new ShopCategory(name, material, data, slot, permission);
+      ShopCategory category = new ShopCategory(name, material, data, slot, permission, tiers);
       categories.add(category);
 
       ConfigurationSection itemsSection = categorySection.getConfigurationSection("items");
@@ -131,6 +140,40 @@ public class ShopConfigLoader {
     return categories;
   }
 
+  /**
+   * Carrega faixas de volume de uma seção do shop.yml
+   *
+   * @param section Seção com uma subseção por faixa (pode ser null)
+   * @return Faixas carregadas
+   */
+  private VolumeTiers loadVolumeTiers(ConfigurationSection section) {
+    if (section == null) {
+      return VolumeTiers.NONE;
+    }
+
+    List<VolumeTiers.Tier> tiers = new ArrayList<>();
+    for (String key : section.getKeys(false)) {
+      ConfigurationSection tierSection = section.getConfigurationSection(key);
+      if (tierSection == null)
+        continue;
+
+      int above = tierSection.getInt("above", 0);
+      double buyMultiplier = tierSection.getDouble("buy-multiplier", 1.0);
+      double sellMultiplier = tierSection.getDouble("sell-multiplier", 1.0);
+      if (above < 0 || buyMultiplier < 0 || sellMultiplier < 0) {
+        plugin.getLogger().log(Level.WARNING,
+            String.format(ShopConstants.LOG_CONFIG_ERROR, "Faixa de volume inválida: " + key));
+        continue;
+      }
+      if (buyMultiplier < sellMultiplier) {
+        plugin.getLogger().warning("Faixa de volume " + key
+            + " paga mais na venda que cobra na compra; comprar e revender nessa faixa dá lucro");
+      }
+      tiers.add(new VolumeTiers.Tier(above, buyMultiplier, sellMultiplier));
+    }
+    return VolumeTiers.of(tiers);
+  }
+
   /**
    * Carrega as mensagens
    */
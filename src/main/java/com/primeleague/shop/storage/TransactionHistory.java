@@ -1,10 +1,10 @@
 package com.primeleague.shop.storage;
 
 import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.gui.ShopInventoryHolder;
 import com.primeleague.shop.models.Transaction;
-import com.primeleague.shop.models.ShopItem;
+import com.primeleague.shop.utils.Cleanable;
 import com.primeleague.shop.utils.TextUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
@@ -12,28 +12,112 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
-public class TransactionHistory {
+/**
+ * Histórico de transações em SQLite
+ *
+ * Uma única thread de escrita é dona da conexão de escrita (modo WAL) e grava
+ * as transações pendentes em commits agrupados. Consultas usam conexões de
+ * leitura separadas, então leitores nunca bloqueiam o escritor. Um lote que
+ * falha volta para a fila e é regravado com espera crescente, até um limite
+ * de tentativas.
+ */
+public class TransactionHistory implements Cleanable {
+  /**
+   * Versão atual do schema; incremente ao adicionar uma migração
+   */
+  private static final int SCHEMA_VERSION = 2;
+
+  private static final String INSERT_SQL =
+      "INSERT INTO transactions (player_name, item_name, quantity, price, type, timestamp, success) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?)";
+  private static final String HISTORY_SQL =
+      "SELECT * FROM transactions WHERE player_name = ? ORDER BY timestamp DESC LIMIT ?";
+  private static final String CLEANUP_SQL = "DELETE FROM transactions WHERE timestamp < ?";
+
+  // Tentativas de regravar um lote que falhou antes de descartá-lo
+  private static final int MAX_FLUSH_RETRIES = 5;
+
   private final PrimeLeagueShopPlugin plugin;
   private final String dbFile;
+  private final ScheduledThreadPoolExecutor writer;
+  private final Queue<Transaction> pending;
+  private final AtomicBoolean flushScheduled;
+  private final BlockingQueue<ReadConnection> readers;
+  private volatile boolean initialized;
+
+  // Acessados apenas pela thread de escrita
   private Connection connection;
-  private boolean initialized;
+  private PreparedStatement insertStatement;
+  private PreparedStatement cleanupStatement;
+  // Lote que falhou, regravado sozinho; transações novas esperam em pending
+  private final List<Transaction> retryBatch = new ArrayList<>();
+  private int retryAttempts;
+  private long retryAt;
+
+  /**
+   * Conexão de leitura com a consulta de histórico já preparada
+   */
+  private static class ReadConnection {
+    private final Connection connection;
+    private final PreparedStatement historyStatement;
+
+    ReadConnection(Connection connection) throws SQLException {
+      this.connection = connection;
+      this.historyStatement = connection.prepareStatement(HISTORY_SQL);
+    }
+
+    void close() {
+      try {
+        historyStatement.close();
+        connection.close();
+      } catch (SQLException ignored) {
+        // Conexão de leitura descartada
+      }
+    }
+  }
 
   public TransactionHistory(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
     this.dbFile = "jdbc:sqlite:" + plugin.getDataFolder().getPath() + "/transactions.db";
     this.initialized = false;
-
-    // Tenta inicializar o banco de dados de forma assíncrona
-    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-      try {
-        initializeDatabase();
-        initialized = true;
-        plugin.getLogger().info("Histórico de transações inicializado com sucesso!");
-      } catch (Exception e) {
-        plugin.getLogger().severe("Erro ao inicializar histórico de transações: " + e.getMessage());
+    this.pending = new ConcurrentLinkedQueue<>();
+    this.flushScheduled = new AtomicBoolean();
+    this.readers = new ArrayBlockingQueue<>(
+        Math.max(1, plugin.getConfig().getInt("settings.transaction.history-readers", 2)));
+    this.writer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "PrimeLeagueShop-HistoryWriter");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    // Ao fechar, o próprio close() grava o que estiver pendente
+    this.writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+    // A inicialização roda na thread de escrita, antes de qualquer gravação enfileirada
+    writer.execute(new Runnable() {
+      @Override
+      public void run() {
+        initialized = initializeDatabase();
+        if (initialized) {
+          plugin.getLogger().info("Histórico de transações inicializado com sucesso!");
+        } else {
+          plugin.getLogger().severe("Histórico de transações não foi inicializado; as gravações serão tentadas novamente");
+        }
       }
     });
   }
@@ -42,133 +126,256 @@ public class TransactionHistory {
     return initialized;
   }
 
-  public void initializeDatabase() {
+  /**
+   * Abre a conexão e aplica as migrações de schema pendentes
+   *
+   * A versão do schema fica em PRAGMA user_version; apenas as migrações
+   * acima dela são executadas, todas em uma única transação, então o custo
+   * não depende do tamanho do histórico.
+   *
+   * @return true se a conexão está pronta para gravar
+   */
+  private boolean initializeDatabase() {
     try {
-      // Verifica se o ShopManager está disponível
-      if (plugin.getShopManager() == null) {
-        plugin.getLogger().severe("ShopManager não está disponível. Inicialização do histórico de transações abortada.");
-        return;
+      openWriteConnection();
+
+      int currentVersion = getSchemaVersion();
+      if (currentVersion < SCHEMA_VERSION) {
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+          for (int version = currentVersion + 1; version <= SCHEMA_VERSION; version++) {
+            applyMigration(stmt, version);
+          }
+          stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+          connection.commit();
+          plugin.getLogger().info(String.format("Schema do histórico migrado da versão %d para %d",
+              currentVersion, SCHEMA_VERSION));
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
+        } finally {
+          connection.setAutoCommit(true);
+        }
       }
 
-      Class.forName("org.sqlite.JDBC");
-      if (connection == null || connection.isClosed()) {
-        connection = DriverManager.getConnection(dbFile);
+      insertStatement = connection.prepareStatement(INSERT_SQL);
+      cleanupStatement = connection.prepareStatement(CLEANUP_SQL);
+      return true;
+    } catch (Exception e) {
+      plugin.getLogger().log(Level.SEVERE, "Erro ao inicializar banco de dados", e);
+      closeWriteConnection();
+      return false;
+    }
+  }
+
+  private void openWriteConnection() throws Exception {
+    Class.forName("org.sqlite.JDBC");
+    if (connection == null || connection.isClosed()) {
+      connection = DriverManager.getConnection(dbFile);
+      try (Statement stmt = connection.createStatement()) {
+        // WAL permite leituras concorrentes enquanto o escritor grava
+        stmt.execute("PRAGMA journal_mode=WAL");
+        stmt.execute("PRAGMA synchronous=NORMAL");
+        stmt.execute("PRAGMA busy_timeout=5000");
       }
+    }
+  }
 
-      Statement stmt = connection.createStatement();
+  private int getSchemaVersion() throws SQLException {
+    try (Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+      return rs.next() ? rs.getInt(1) : 0;
+    }
+  }
 
-      // Primeiro fazemos backup dos dados existentes
-      List<Transaction> existingTransactions = new ArrayList<>();
-      try {
-        ResultSet rs = stmt.executeQuery("SELECT * FROM transactions");
-        while (rs.next()) {
-          try {
-            String playerName = rs.getString("player_name");
-            String itemName = rs.getString("item_name");
-            int quantity = rs.getInt("quantity");
-            double price = rs.getDouble("price");
-            boolean isBuy = rs.getString("type").equals("BUY");
-            long timestamp = rs.getLong("timestamp");
-
-            Transaction transaction = new Transaction(
-              playerName,
-              itemName,
-              quantity,
-              price,
-              timestamp,
-              isBuy
-            );
-            existingTransactions.add(transaction);
-          } catch (Exception e) {
-            plugin.getLogger().warning("Erro ao ler transação existente: " + e.getMessage());
-            plugin.getLogger().warning("Detalhes do erro: " + e.toString());
-          }
+  /**
+   * Aplica uma migração incremental. Migrações só criam ou alteram
+   * estruturas, nunca copiam dados.
+   */
+  private void applyMigration(Statement stmt, int version) throws SQLException {
+    switch (version) {
+      case 1:
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS transactions (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "player_name TEXT NOT NULL," +
+                "item_name TEXT NOT NULL," +
+                "quantity INTEGER NOT NULL," +
+                "price REAL NOT NULL," +
+                "type TEXT NOT NULL," +
+                "timestamp BIGINT NOT NULL" +
+                ")");
+        stmt.execute(
+            "CREATE INDEX IF NOT EXISTS idx_player_timestamp ON transactions (player_name, timestamp)");
+        break;
+      case 2:
+        // Bancos antigos podem ter sido criados sem a coluna de sucesso
+        if (!hasColumn("transactions", "success")) {
+          stmt.execute("ALTER TABLE transactions ADD COLUMN success BOOLEAN DEFAULT 0");
+        }
+        break;
+      default:
+        throw new SQLException("Migração desconhecida: " + version);
+    }
+  }
+
+  private boolean hasColumn(String table, String column) throws SQLException {
+    try (Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+      while (rs.next()) {
+        if (column.equalsIgnoreCase(rs.getString("name"))) {
+          return true;
         }
-        rs.close();
-      } catch (SQLException e) {
-        plugin.getLogger().warning("Tabela antiga não encontrada, criando nova");
       }
+    }
+    return false;
+  }
 
-      // Dropa a tabela antiga
-      stmt.execute("DROP TABLE IF EXISTS transactions");
-
-      // Cria a nova tabela com todas as colunas
-      stmt.execute(
-          "CREATE TABLE transactions (" +
-              "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-              "player_name TEXT NOT NULL," +
-              "item_name TEXT NOT NULL," +
-              "quantity INTEGER NOT NULL," +
-              "price REAL NOT NULL," +
-              "type TEXT NOT NULL," +
-              "timestamp BIGINT NOT NULL," +
-              "success BOOLEAN DEFAULT 0" +
-              ")"
-      );
-
-      // Recria o índice
-      stmt.execute(
-          "CREATE INDEX idx_player_timestamp ON transactions (player_name, timestamp)");
-
-      // Reinsere os dados antigos
-      if (!existingTransactions.isEmpty()) {
-        String insertSql = "INSERT INTO transactions (player_name, item_name, quantity, price, type, timestamp, success) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-        PreparedStatement pstmt = connection.prepareStatement(insertSql);
-        for (Transaction transaction : existingTransactions) {
-          pstmt.setString(1, transaction.getPlayerName());
-          pstmt.setString(2, transaction.getItemName());
-          pstmt.setInt(3, transaction.getQuantity());
-          pstmt.setDouble(4, transaction.getPrice());
-          pstmt.setString(5, transaction.isBuy() ? "BUY" : "SELL");
-          pstmt.setLong(6, transaction.getTimestamp());
-          pstmt.setBoolean(7, transaction.isSuccessful());
+  /**
+   * Enfileira uma transação para gravação; nunca bloqueia a thread chamadora
+   */
+  public void addTransaction(Transaction transaction) {
+    pending.offer(transaction);
+    scheduleFlush();
+  }
 
-          try {
-            pstmt.executeUpdate();
-          } catch (SQLException e) {
-            plugin.getLogger().warning("Erro ao reinserir transação: " + e.getMessage());
+  /**
+   * Enfileira várias transações para serem gravadas no mesmo commit
+   */
+  public void addTransactions(Collection<Transaction> transactions) {
+    pending.addAll(transactions);
+    scheduleFlush();
+  }
+
+  /**
+   * Agenda uma gravação, a menos que já exista uma agendada; transações que
+   * chegam enquanto isso entram no mesmo commit
+   */
+  private void scheduleFlush() {
+    if (flushScheduled.compareAndSet(false, true)) {
+      try {
+        writer.execute(new Runnable() {
+          @Override
+          public void run() {
+            flushPending();
           }
-        }
-        pstmt.close();
+        });
+      } catch (RejectedExecutionException e) {
+        flushScheduled.set(false);
+        plugin.getLogger().warning("Histórico de transações já foi fechado; transação não será salva");
       }
-
-      stmt.close();
-    } catch (Exception e) {
-      plugin.getLogger().log(Level.SEVERE, "Erro ao inicializar banco de dados", e);
     }
   }
 
-  public void addTransaction(Transaction transaction) {
-    if (!initialized) {
-        plugin.getLogger().warning("Tentativa de adicionar transação antes da inicialização do banco de dados");
+  /**
+   * Grava todas as transações pendentes em um único commit (thread de escrita)
+   */
+  private void flushPending() {
+    flushScheduled.set(false);
+
+    // Um lote que falhou é gravado antes das novas, mantendo a ordem; até lá
+    // as novas esperam em pending, sem gastar as tentativas do lote
+    if (!retryBatch.isEmpty()) {
+      if (System.nanoTime() < retryAt) {
+        return;
+      }
+      if (!writeBatch(retryBatch)) {
+        retryLater();
         return;
+      }
+      retryBatch.clear();
+      retryAttempts = 0;
     }
 
-    try {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(dbFile);
-        }
+    List<Transaction> batch = new ArrayList<>();
+    Transaction transaction;
+    while ((transaction = pending.poll()) != null) {
+      batch.add(transaction);
+    }
 
-        String sql = "INSERT INTO transactions (player_name, item_name, quantity, price, type, timestamp, success) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    if (!batch.isEmpty() && !writeBatch(batch)) {
+      retryBatch.addAll(batch);
+      retryLater();
+    }
+  }
 
-        PreparedStatement stmt = connection.prepareStatement(sql);
-        stmt.setString(1, transaction.getPlayerName());
-        stmt.setString(2, transaction.getItemName());
-        stmt.setInt(3, transaction.getQuantity());
-        stmt.setDouble(4, transaction.getPrice());
-        stmt.setString(5, transaction.isBuy() ? "BUY" : "SELL");
-        stmt.setLong(6, transaction.getTimestamp());
-        stmt.setBoolean(7, transaction.isSuccessful());
+  /**
+   * Grava um lote em um único commit (thread de escrita)
+   *
+   * @return false se o lote não foi gravado
+   */
+  private boolean writeBatch(List<Transaction> batch) {
+    if (insertStatement == null) {
+      initialized = initializeDatabase();
+      if (!initialized) {
+        return false;
+      }
+    }
 
-        stmt.executeUpdate();
-        stmt.close();
+    try {
+      connection.setAutoCommit(false);
+      for (Transaction t : batch) {
+        insertStatement.setString(1, t.getPlayerName());
+        insertStatement.setString(2, t.getItemName());
+        insertStatement.setInt(3, t.getQuantity());
+        insertStatement.setDouble(4, t.getPrice());
+        insertStatement.setString(5, t.isBuy() ? "BUY" : "SELL");
+        insertStatement.setLong(6, t.getTimestamp());
+        insertStatement.setBoolean(7, t.isSuccessful());
+        insertStatement.addBatch();
+      }
+      insertStatement.executeBatch();
+      connection.commit();
+      return true;
     } catch (SQLException e) {
-        plugin.getLogger().log(Level.WARNING, "Erro ao salvar transação", e);
-        // Se falhou, tenta reinicializar o banco
-        initializeDatabase();
+      plugin.getLogger().log(Level.WARNING, "Erro ao salvar " + batch.size() + " transações", e);
+      try {
+        connection.rollback();
+      } catch (SQLException ignored) {
+        // A conexão será reaberta abaixo
+      }
+      // Se falhou, reabre a conexão, reprepara as consultas e tenta o lote de novo
+      closeWriteConnection();
+      initialized = initializeDatabase();
+      return false;
+    } finally {
+      try {
+        if (connection != null && !connection.isClosed()) {
+          connection.setAutoCommit(true);
+        }
+      } catch (SQLException ignored) {
+        // Nada a restaurar
+      }
+    }
+  }
+
+  /**
+   * Agenda uma nova tentativa do lote que falhou; após o limite de
+   * tentativas só ele é descartado e as transações novas seguem com suas
+   * próprias tentativas (thread de escrita)
+   */
+  private void retryLater() {
+    if (++retryAttempts > MAX_FLUSH_RETRIES) {
+      plugin.getLogger().severe(String.format("%d transações descartadas após %d tentativas de gravação",
+          retryBatch.size(), MAX_FLUSH_RETRIES));
+      retryBatch.clear();
+      retryAttempts = 0;
+      if (!pending.isEmpty()) {
+        scheduleFlush();
+      }
+      return;
+    }
+
+    retryAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAttempts);
+    try {
+      writer.schedule(new Runnable() {
+        @Override
+        public void run() {
+          flushPending();
+        }
+      }, retryAttempts, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException ignored) {
+      // Fechando: o close() ainda tenta gravar o lote
     }
   }
 
@@ -176,6 +383,11 @@ public class TransactionHistory {
     return getPlayerHistory(playerName, 50); // Valor padrão de 50 registros
   }
 
+  /**
+   * Busca o histórico de um jogador em uma conexão de leitura
+   *
+   * Deve ser chamado fora da thread principal.
+   */
   public List<Transaction> getPlayerHistory(String playerName, int limit) {
     List<Transaction> history = new ArrayList<>();
 
@@ -184,19 +396,15 @@ public class TransactionHistory {
         return history;
     }
 
+    ReadConnection reader = null;
     try {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(dbFile);
-        }
-
-        PreparedStatement stmt = connection.prepareStatement(
-            "SELECT * FROM transactions WHERE player_name = ? ORDER BY timestamp DESC LIMIT ?");
-
+        reader = borrowReader();
+        PreparedStatement stmt = reader.historyStatement;
         stmt.setString(1, playerName);
         stmt.setInt(2, limit);
-        ResultSet rs = stmt.executeQuery();
 
-        while (rs.next()) {
+        try (ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
             try {
                 String itemName = rs.getString("item_name");
                 int quantity = rs.getInt("quantity");
@@ -221,46 +429,140 @@ public class TransactionHistory {
             } catch (Exception e) {
                 plugin.getLogger().warning("Erro ao ler transação: " + e.getMessage());
             }
+          }
         }
 
-        rs.close();
-        stmt.close();
+        returnReader(reader);
     } catch (SQLException e) {
         plugin.getLogger().log(Level.WARNING, "Erro ao buscar histórico", e);
+        if (reader != null) {
+          reader.close();
+        }
     }
 
     return history;
   }
 
+  private ReadConnection borrowReader() throws SQLException {
+    ReadConnection reader = readers.poll();
+    if (reader != null) {
+      return reader;
+    }
+
+    Connection readConnection = DriverManager.getConnection(dbFile);
+    try (Statement stmt = readConnection.createStatement()) {
+      stmt.execute("PRAGMA query_only=1");
+      stmt.execute("PRAGMA busy_timeout=5000");
+    }
+    return new ReadConnection(readConnection);
+  }
+
+  private void returnReader(ReadConnection reader) {
+    if (!readers.offer(reader)) {
+      reader.close();
+    }
+  }
+
+  /**
+   * Remove transações antigas (mais de 30 dias) na thread de escrita
+   */
+  @Override
   public void cleanup() {
+    final long olderThan = System.currentTimeMillis() - (30L * 24L * 60L * 60L * 1000L);
     try {
-      if (connection != null && !connection.isClosed()) {
-        // Remove transações antigas (mais de 30 dias)
-        PreparedStatement stmt = connection.prepareStatement(
-            "DELETE FROM transactions WHERE timestamp < ?");
-        stmt.setLong(1, System.currentTimeMillis() - (30L * 24L * 60L * 60L * 1000L));
-        stmt.executeUpdate();
-        stmt.close();
-      }
-    } catch (SQLException e) {
-      plugin.getLogger().log(Level.WARNING, "Erro ao limpar transações antigas", e);
+      writer.execute(new Runnable() {
+        @Override
+        public void run() {
+          if (cleanupStatement == null) {
+            return;
+          }
+          try {
+            cleanupStatement.setLong(1, olderThan);
+            cleanupStatement.executeUpdate();
+          } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao limpar transações antigas", e);
+          }
+        }
+      });
+    } catch (RejectedExecutionException ignored) {
+      // Histórico já fechado
     }
   }
 
+  /**
+   * Grava as transações pendentes e fecha todas as conexões
+   */
   public void close() {
     try {
+      writer.execute(new Runnable() {
+        @Override
+        public void run() {
+          // Última tentativa sem esperar o intervalo entre tentativas
+          retryAt = 0L;
+          flushPending();
+          int lost = retryBatch.size() + pending.size();
+          if (lost > 0) {
+            plugin.getLogger().severe(lost + " transações não puderam ser gravadas ao desligar");
+          }
+          closeWriteConnection();
+        }
+      });
+    } catch (RejectedExecutionException ignored) {
+      // Já fechado
+    }
+    writer.shutdown();
+
+    try {
+      if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+        plugin.getLogger().warning("Tempo esgotado aguardando a gravação do histórico de transações");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    ReadConnection reader;
+    while ((reader = readers.poll()) != null) {
+      reader.close();
+    }
+  }
+
+  private void closeWriteConnection() {
+    try {
+      if (insertStatement != null) {
+        insertStatement.close();
+      }
+      if (cleanupStatement != null) {
+        cleanupStatement.close();
+      }
       if (connection != null && !connection.isClosed()) {
         connection.close();
       }
     } catch (SQLException e) {
       plugin.getLogger().log(Level.WARNING, "Erro ao fechar conexão", e);
+    } finally {
+      insertStatement = null;
+      cleanupStatement = null;
+      connection = null;
     }
   }
 
-  public void openHistory(Player player) {
-    List<Transaction> transactions = getPlayerHistory(player.getName(), 45);
+  /**
+   * Abre o histórico em uma GUI; a consulta roda fora da thread principal
+   */
+  public void openHistory(final Player player) {
+    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+      final List<Transaction> transactions = getPlayerHistory(player.getName(), 45);
+
+      plugin.getServer().getScheduler().runTask(plugin, () -> {
+        if (player.isOnline()) {
+          showHistory(player, transactions);
+        }
+      });
+    });
+  }
 
-    Inventory inv = Bukkit.createInventory(null, 54, TextUtils.colorize("&8Histórico de Transações"));
+  private void showHistory(Player player, List<Transaction> transactions) {
+    Inventory inv = ShopInventoryHolder.createInventory(ShopInventoryHolder.GuiType.HISTORY, 54, TextUtils.colorize("&8Histórico de Transações"));
 
     int slot = 0;
     for (Transaction transaction : transactions) {
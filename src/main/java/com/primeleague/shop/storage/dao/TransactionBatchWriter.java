@@ -0,0 +1,180 @@
+package com.primeleague.shop.storage.dao;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import com.primeleague.shop.models.Transaction;
+import com.primeleague.shop.utils.ShopConstants;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Fila de escrita assíncrona (write-behind) para transações
+ *
+ * As transações são enfileiradas pela thread principal e gravadas em lotes
+ * por uma thread dedicada, sempre que o lote atinge o tamanho máximo ou o
+ * intervalo de flush expira.
+ */
+public class TransactionBatchWriter {
+
+  private static final String THREAD_NAME = "PrimeLeagueShop-TransactionWriter";
+
+  private final PrimeLeagueShopPlugin plugin;
+  private final TransactionDAO dao;
+  private final BlockingQueue<Transaction> queue;
+  private final int batchSize;
+  private final long flushIntervalMs;
+  private final long offerTimeoutMs;
+  private final Object flushLock;
+  private final AtomicLong droppedTransactions;
+  private final Thread writerThread;
+  private volatile boolean running;
+
+  /**
+   * Cria uma nova fila de escrita
+   *
+   * @param plugin Instância do plugin
+   * @param dao    DAO usado para gravar os lotes
+   */
+  public TransactionBatchWriter(PrimeLeagueShopPlugin plugin, TransactionDAO dao) {
+    this.plugin = plugin;
+    this.dao = dao;
+    this.batchSize = Math.max(1, plugin.getConfig().getInt("settings.transaction.write-behind.batch-size", 100));
+    this.flushIntervalMs = Math.max(50L,
+        plugin.getConfig().getLong("settings.transaction.write-behind.flush-interval", 1000L));
+    this.offerTimeoutMs = Math.max(0L,
+        plugin.getConfig().getLong("settings.transaction.write-behind.offer-timeout", 5L));
+    int capacity = Math.max(batchSize,
+        plugin.getConfig().getInt("settings.transaction.write-behind.queue-capacity", 10000));
+
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.flushLock = new Object();
+    this.droppedTransactions = new AtomicLong();
+    this.writerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        runWriter();
+      }
+    }, THREAD_NAME);
+    this.writerThread.setDaemon(true);
+  }
+
+  /**
+   * Inicia a thread de escrita
+   */
+  public void start() {
+    running = true;
+    writerThread.start();
+  }
+
+  /**
+   * Enfileira uma transação para gravação
+   *
+   * Se a fila estiver cheia, a thread chamadora espera no máximo
+   * offer-timeout ms pela vaga antes de descartar a transação.
+   *
+   * @param transaction Transação a gravar
+   * @return true se a transação foi enfileirada
+   */
+  public boolean enqueue(Transaction transaction) {
+    if (!running) {
+      return false;
+    }
+
+    if (queue.offer(transaction)) {
+      return true;
+    }
+
+    try {
+      if (offerTimeoutMs > 0 && queue.offer(transaction, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    long dropped = droppedTransactions.incrementAndGet();
+    if (dropped == 1 || dropped % 100 == 0) {
+      plugin.getLogger().warning(String.format(
+          "Fila de transações cheia (%d), %d transações descartadas até agora", queue.size(), dropped));
+    }
+    return false;
+  }
+
+  /**
+   * Para a thread de escrita e grava tudo o que ainda estiver na fila
+   */
+  public void shutdown() {
+    running = false;
+    writerThread.interrupt();
+
+    try {
+      writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    // Garante que nada fique para trás, mesmo se a thread não terminou a tempo
+    List<Transaction> remaining = new ArrayList<>();
+    while (queue.drainTo(remaining, batchSize) > 0) {
+      flush(remaining);
+      remaining.clear();
+    }
+  }
+
+  /**
+   * Quantidade de transações aguardando gravação
+   */
+  public int getPendingCount() {
+    return queue.size();
+  }
+
+  private void runWriter() {
+    List<Transaction> batch = new ArrayList<>(batchSize);
+
+    while (running) {
+      try {
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+
+        // Acumula até encher o lote ou o intervalo expirar
+        while (batch.size() < batchSize) {
+          long wait = deadline - System.currentTimeMillis();
+          if (wait <= 0) {
+            break;
+          }
+
+          Transaction transaction = queue.poll(wait, TimeUnit.MILLISECONDS);
+          if (transaction == null) {
+            break;
+          }
+
+          batch.add(transaction);
+          queue.drainTo(batch, batchSize - batch.size());
+        }
+      } catch (InterruptedException e) {
+        // Desligamento solicitado; o lote atual ainda é gravado abaixo
+      }
+
+      if (!batch.isEmpty()) {
+        flush(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<Transaction> batch) {
+    synchronized (flushLock) {
+      try {
+        dao.saveTransactions(batch);
+      } catch (SQLException e) {
+        plugin.getLogger().log(Level.SEVERE,
+            String.format(ShopConstants.LOG_DATABASE_ERROR,
+                "Falha ao gravar lote de " + batch.size() + " transações: " + e.getMessage()), e);
+      }
+    }
+  }
+}
@@ -13,30 +13,48 @@ import java.util.logging.Level;
 
 /**
  * DAO para acesso a transações no banco de dados
+ *
+ * Cada operação pega uma conexão emprestada do pool e a devolve ao final,
+ * permitindo que leituras, limpezas e gravações rodem em paralelo.
  */
 public class TransactionDAO {
 
+  private static final String INSERT_SQL =
+      "INSERT INTO transactions (player_name, item_name, quantity, price, type, timestamp, success) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
   private final PrimeLeagueShopPlugin plugin;
-  private Connection connection;
+  private volatile boolean tableReady;
 
   /**
    * Cria um novo DAO
    *
+   * Se o banco estiver fora do ar, a tabela é criada na primeira operação
+   * bem-sucedida em vez de invalidar o DAO.
+   *
    * @param plugin Instância do plugin
-   * @throws SQLException Se houver erro ao conectar ao banco
    */
-  public TransactionDAO(PrimeLeagueShopPlugin plugin) throws SQLException {
+  public TransactionDAO(PrimeLeagueShopPlugin plugin) {
     this.plugin = plugin;
-    this.connection = plugin.getConnection();
-    createTable();
+
+    try {
+      ensureTable();
+    } catch (SQLException e) {
+      plugin.getLogger().log(Level.WARNING,
+          String.format(ShopConstants.LOG_DATABASE_ERROR, "Tabela será criada quando o banco voltar: " + e.getMessage()));
+    }
   }
 
   /**
-   * Cria a tabela de transações se não existir
+   * Cria a tabela de transações se ainda não foi criada
    *
    * @throws SQLException Se houver erro ao criar tabela
    */
-  private void createTable() throws SQLException {
+  private void ensureTable() throws SQLException {
+    if (tableReady) {
+      return;
+    }
+
     String sql = "CREATE TABLE IF NOT EXISTS transactions (" +
         "id INTEGER PRIMARY KEY AUTO_INCREMENT, " +
         "player_name VARCHAR(16) NOT NULL, " +
@@ -50,9 +68,11 @@ public class TransactionDAO {
         "INDEX idx_timestamp (timestamp)" +
         ")";
 
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+    try (Connection connection = plugin.getConnection();
+        PreparedStatement stmt = connection.prepareStatement(sql)) {
       stmt.execute();
     }
+    tableReady = true;
   }
 
   /**
@@ -62,46 +82,77 @@ public class TransactionDAO {
    * @throws SQLException Se houver erro ao salvar
    */
   public void saveTransaction(Transaction transaction) throws SQLException {
-    String sql = "INSERT INTO transactions (player_name, item_name, quantity, price, type, timestamp, success) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-      stmt.setString(1, transaction.getPlayerName());
-      stmt.setString(2, transaction.getItemName());
-      stmt.setInt(3, transaction.getQuantity());
-      stmt.setDouble(4, transaction.getPrice());
-      stmt.setString(5, transaction.isBuy() ? "BUY" : "SELL");
-      stmt.setLong(6, transaction.getTimestamp());
-      stmt.setBoolean(7, transaction.isSuccessful());
+    ensureTable();
 
+    try (Connection connection = plugin.getConnection();
+        PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+      bindTransaction(stmt, transaction);
       stmt.executeUpdate();
     }
   }
 
+  /**
+   * Salva um lote de transações usando um único batch JDBC
+   *
+   * Com rewriteBatchedStatements habilitado no pool, o driver do MySQL
+   * converte o lote em poucos INSERTs de múltiplas linhas.
+   *
+   * @param transactions Transações a salvar
+   * @throws SQLException Se houver erro ao salvar
+   */
+  public void saveTransactions(List<Transaction> transactions) throws SQLException {
+    if (transactions.isEmpty()) {
+      return;
+    }
+    ensureTable();
+
+    try (Connection connection = plugin.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+        for (Transaction transaction : transactions) {
+          bindTransaction(stmt, transaction);
+          stmt.addBatch();
+        }
+
+        stmt.executeBatch();
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
   public List<Transaction> getPlayerTransactions(String playerName, int limit) throws SQLException {
+    ensureTable();
+
     String sql = "SELECT * FROM transactions WHERE player_name = ? ORDER BY timestamp DESC LIMIT ?";
     List<Transaction> transactions = new ArrayList<>();
 
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+    try (Connection connection = plugin.getConnection();
+        PreparedStatement stmt = connection.prepareStatement(sql)) {
       stmt.setString(1, playerName);
       stmt.setInt(2, limit);
 
-      ResultSet rs = stmt.executeQuery();
-      while (rs.next()) {
-        Transaction transaction = new Transaction(
-            rs.getString("player_name"),
-            rs.getString("item_name"),
-            rs.getInt("quantity"),
-            rs.getDouble("price"),
-            rs.getLong("timestamp"),
-            rs.getString("type").equals("BUY")
-        );
-
-        if (rs.getBoolean("success")) {
-          transaction.markSuccessful();
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          Transaction transaction = new Transaction(
+              rs.getString("player_name"),
+              rs.getString("item_name"),
+              rs.getInt("quantity"),
+              rs.getDouble("price"),
+              rs.getLong("timestamp"),
+              rs.getString("type").equals("BUY")
+          );
+
+          if (rs.getBoolean("success")) {
+            transaction.markSuccessful();
+          }
+
+          transactions.add(transaction);
         }
-
-        transactions.add(transaction);
       }
     }
 
@@ -109,24 +160,24 @@ public class TransactionDAO {
   }
 
   public void cleanOldTransactions(long olderThan) throws SQLException {
+    ensureTable();
+
     String sql = "DELETE FROM transactions WHERE timestamp < ?";
 
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+    try (Connection connection = plugin.getConnection();
+        PreparedStatement stmt = connection.prepareStatement(sql)) {
       stmt.setLong(1, olderThan);
       stmt.executeUpdate();
     }
   }
 
-  /**
-   * Fecha a conexão com o banco de dados
-   */
-  public void closeConnection() {
-    try {
-      if (connection != null && !connection.isClosed()) {
-        connection.close();
-      }
-    } catch (SQLException e) {
-      plugin.getLogger().log(Level.WARNING, "Erro ao fechar conexão com banco de dados", e);
-    }
+  private void bindTransaction(PreparedStatement stmt, Transaction transaction) throws SQLException {
+    stmt.setString(1, transaction.getPlayerName());
+    stmt.setString(2, transaction.getItemName());
+    stmt.setInt(3, transaction.getQuantity());
+    stmt.setDouble(4, transaction.getPrice());
+    stmt.setString(5, transaction.isBuy() ? "BUY" : "SELL");
+    stmt.setLong(6, transaction.getTimestamp());
+    stmt.setBoolean(7, transaction.isSuccessful());
   }
 }
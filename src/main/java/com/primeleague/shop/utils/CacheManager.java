@@ -1,60 +1,365 @@
 package com.primeleague.shop.utils;
 
-import java.util.Map;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Cache concorrente limitado por tamanho e por tempo
+ *
+ * As entradas são divididas em segmentos, cada um com seu próprio lock e
+ * ordem LRU; quando um segmento passa da sua parte do limite, a entrada
+ * usada há mais tempo sai na hora, sem esperar por uma limpeza externa.
+ * Entradas mais velhas que o tempo de expiração são descartadas na leitura;
+ * o relógio só é lido quando há expiração configurada.
+ *
+ * Com um {@link Loader}, entradas mais velhas que o intervalo de
+ * atualização são recarregadas em segundo plano na primeira leitura,
+ * enquanto o valor antigo continua sendo servido.
+ */
+public class CacheManager<K, V> implements Cleanable {
+
+  // Abaixo disso um segmento só já basta
+  private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+  private static final int MAX_SEGMENTS = 16;
+
+  /**
+   * Carrega o valor atual de uma chave
+   */
+  public interface Loader<K, V> {
+    V load(K key) throws Exception;
+  }
+
+  /**
+   * Contadores do cache em um instante; imutável
+   */
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long refreshes;
+    private final long refreshFailures;
+
+    Stats(long hits, long misses, long evictions, long refreshes, long refreshFailures) {
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+      this.refreshes = refreshes;
+      this.refreshFailures = refreshFailures;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    /**
+     * Entradas removidas por limite de tamanho
+     */
+    public long getEvictions() {
+      return evictions;
+    }
+
+    public long getRefreshes() {
+      return refreshes;
+    }
+
+    public long getRefreshFailures() {
+      return refreshFailures;
+    }
+
+    public double getHitRate() {
+      long requests = hits + misses;
+      return requests == 0 ? 1.0 : (double) hits / requests;
+    }
 
-public class CacheManager<K, V> {
-  private final Map<K, CacheEntry<V>> cache;
-  private final long expirationMs;
+    @Override
+    public String toString() {
+      return String.format("acertos=%d, falhas=%d (%.1f%%), despejos=%d, atualizações=%d, erros=%d",
+          hits, misses, getHitRate() * 100, evictions, refreshes, refreshFailures);
+    }
+  }
 
-  private static class CacheEntry<V> {
+  private static final class Entry<V> {
     final V value;
-    final long timestamp;
+    final long writtenAt;
+    final AtomicBoolean refreshing = new AtomicBoolean();
 
-    CacheEntry(V value) {
+    Entry(V value, long writtenAt) {
       this.value = value;
-      this.timestamp = System.currentTimeMillis();
+      this.writtenAt = writtenAt;
     }
+  }
 
-    boolean isExpired(long expirationMs) {
-      return System.currentTimeMillis() - timestamp > expirationMs;
+  /**
+   * Segmento em ordem de acesso; só usado com o próprio lock
+   */
+  private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+    private final int capacity;
+    private final LongAdder evictions;
+
+    Segment(int capacity, LongAdder evictions) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+      if (size() > capacity) {
+        evictions.increment();
+        return true;
+      }
+      return false;
     }
   }
 
-  public CacheManager(long expirationMinutes) {
-    this.cache = Collections.synchronizedMap(new HashMap<K, CacheEntry<V>>());
-    this.expirationMs = expirationMinutes * 60 * 1000;
+  private final Segment<K, V>[] segments;
+  private final int segmentMask;
+  private final long expireAfterNanos;
+  private final long refreshAfterNanos;
+  private final Loader<K, V> loader;
+  private final Executor executor;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+  private final LongAdder refreshFailures = new LongAdder();
+
+  /**
+   * Cria um cache sem recarga
+   *
+   * @param maximumSize Número máximo aproximado de entradas
+   * @param expireAfter Tempo de vida de cada entrada após gravada (0 = sem expiração)
+   * @param unit        Unidade de expireAfter
+   */
+  public CacheManager(int maximumSize, long expireAfter, TimeUnit unit) {
+    this(maximumSize, expireAfter, unit, null, 0, null);
   }
 
-  public void put(K key, V value) {
-    cache.put(key, new CacheEntry<>(value));
+  /**
+   * Cria um cache que se recarrega em segundo plano
+   *
+   * @param maximumSize  Número máximo aproximado de entradas
+   * @param expireAfter  Tempo de vida de cada entrada após gravada (0 = sem expiração)
+   * @param unit         Unidade de expireAfter e refreshAfter
+   * @param loader       Carrega o valor atualizado de uma chave
+   * @param refreshAfter Idade a partir da qual uma leitura dispara a recarga (0 = nunca)
+   * @param executor     Onde as recargas rodam
+   */
+  @SuppressWarnings("unchecked")
+  public CacheManager(int maximumSize, long expireAfter, TimeUnit unit,
+      Loader<K, V> loader, long refreshAfter, Executor executor) {
+    int max = Math.max(1, maximumSize);
+    int count = 1;
+    while (count < MAX_SEGMENTS && max / (count * 2) >= MIN_ENTRIES_PER_SEGMENT) {
+      count *= 2;
+    }
+
+    this.segments = new Segment[count];
+    int perSegment = (max + count - 1) / count;
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment<>(perSegment, evictions);
+    }
+    this.segmentMask = count - 1;
+    this.expireAfterNanos = unit.toNanos(Math.max(0, expireAfter));
+    this.refreshAfterNanos = loader != null && executor != null ? unit.toNanos(Math.max(0, refreshAfter)) : 0L;
+    this.loader = loader;
+    this.executor = executor;
   }
 
-  public V get(K key) {
-    CacheEntry<V> entry = cache.get(key);
-    if (entry == null)
+  private Segment<K, V> segmentFor(Object key) {
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return segments[h & segmentMask];
+  }
+
+  private long now() {
+    return expireAfterNanos > 0 || refreshAfterNanos > 0 ? System.nanoTime() : 0L;
+  }
+
+  private boolean isExpired(Entry<V> entry, long now) {
+    return expireAfterNanos > 0 && now - entry.writtenAt > expireAfterNanos;
+  }
+
+  /**
+   * Entrada válida da chave, descartando-a se expirou; chamar com o lock do segmento
+   */
+  private Entry<V> liveEntry(Segment<K, V> segment, K key, long now) {
+    Entry<V> entry = segment.get(key);
+    if (entry != null && isExpired(entry, now)) {
+      segment.remove(key);
       return null;
-    if (entry.isExpired(expirationMs)) {
-      cache.remove(key);
+    }
+    return entry;
+  }
+
+  /**
+   * Obtém o valor em cache
+   *
+   * @return Valor, ou null se ausente ou expirado
+   */
+  public V get(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    long now = now();
+    Entry<V> entry;
+    synchronized (segment) {
+      entry = liveEntry(segment, key, now);
+    }
+
+    if (entry == null) {
+      misses.increment();
       return null;
     }
+
+    hits.increment();
+    if (refreshAfterNanos > 0 && now - entry.writtenAt > refreshAfterNanos) {
+      refresh(key, entry);
+    }
     return entry.value;
   }
 
+  /**
+   * Obtém o valor em cache ou o calcula e grava
+   *
+   * O cálculo roda com o segmento bloqueado; deve ser rápido.
+   */
+  public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+    if (value != null) {
+      return value;
+    }
+    return compute(key, (k, current) -> current != null ? current : mappingFunction.apply(k));
+  }
+
+  /**
+   * Recalcula o valor da chave de forma atômica
+   *
+   * A função recebe o valor atual (null se ausente ou expirado); retornar
+   * null remove a entrada. Roda com o segmento bloqueado.
+   *
+   * @return Novo valor
+   */
+  public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    Segment<K, V> segment = segmentFor(key);
+    long now = now();
+    synchronized (segment) {
+      Entry<V> current = liveEntry(segment, key, now);
+      V currentValue = current != null ? current.value : null;
+      V updated = remappingFunction.apply(key, currentValue);
+
+      if (updated == null) {
+        if (current != null) {
+          segment.remove(key);
+        }
+      } else if (updated != currentValue) {
+        segment.put(key, new Entry<V>(updated, now));
+      }
+      return updated;
+    }
+  }
+
+  public void put(K key, V value) {
+    Segment<K, V> segment = segmentFor(key);
+    long now = now();
+    synchronized (segment) {
+      segment.put(key, new Entry<V>(value, now));
+    }
+  }
+
   public void remove(K key) {
-    cache.remove(key);
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.remove(key);
+    }
   }
 
+  public void invalidateAll() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * Número de entradas, incluindo expiradas ainda não descartadas
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public Stats getStats() {
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), refreshes.sum(), refreshFailures.sum());
+  }
+
+  /**
+   * Descarta as entradas expiradas, um segmento por vez
+   */
+  @Override
   public void cleanup() {
-    synchronized (cache) {
-      Iterator<Map.Entry<K, CacheEntry<V>>> it = cache.entrySet().iterator();
-      while (it.hasNext()) {
-        if (it.next().getValue().isExpired(expirationMs)) {
-          it.remove();
+    if (expireAfterNanos == 0) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        Iterator<Entry<V>> it = segment.values().iterator();
+        while (it.hasNext()) {
+          if (isExpired(it.next(), now)) {
+            it.remove();
+          }
         }
       }
     }
   }
+
+  /**
+   * Recarrega a entrada em segundo plano; uma recarga por entrada por vez
+   */
+  private void refresh(final K key, final Entry<V> entry) {
+    if (!entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    executor.execute(() -> {
+      try {
+        V value = loader.load(key);
+        refreshes.increment();
+        if (value == null) {
+          entry.refreshing.set(false);
+          return;
+        }
+
+        // Só substitui se ninguém gravou a chave durante a recarga
+        Segment<K, V> segment = segmentFor(key);
+        long now = now();
+        synchronized (segment) {
+          if (segment.get(key) == entry) {
+            segment.put(key, new Entry<V>(value, now));
+          }
+        }
+      } catch (Exception e) {
+        refreshFailures.increment();
+        entry.refreshing.set(false); // Tenta de novo na próxima leitura
+      }
+    });
+  }
 }
@@ -0,0 +1,112 @@
+package com.primeleague.shop.utils;
+
+import com.primeleague.shop.PrimeLeagueShopPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Agenda central das limpezas periódicas ({@link Cleanable})
+ *
+ * Cada limpeza é registrada uma vez com seu intervalo. Todas rodam fora da
+ * thread principal, em um único timer assíncrono que verifica a cada
+ * segundo quais já venceram; nenhuma limpeza atual precisa da thread
+ * principal, então o agendador não ocupa nenhum tick do servidor.
+ */
+public class MaintenanceScheduler {
+
+  // Frequência com que o timer verifica as limpezas vencidas
+  private static final long CHECK_PERIOD_TICKS = 20L;
+  private static final long MILLIS_PER_TICK = 50L;
+
+  private final PrimeLeagueShopPlugin plugin;
+  private final List<Task> tasks;
+  // Evita duas verificações simultâneas se uma limpeza demorar mais que o período
+  private final AtomicBoolean running;
+  private BukkitTask asyncTask;
+
+  /**
+   * Uma limpeza registrada
+   */
+  private static final class Task {
+    private final String name;
+    private final Cleanable cleanable;
+    private final long intervalMillis;
+    private long nextRun;
+
+    Task(String name, Cleanable cleanable, long intervalMillis, long nextRun) {
+      this.name = name;
+      this.cleanable = cleanable;
+      this.intervalMillis = intervalMillis;
+      this.nextRun = nextRun;
+    }
+  }
+
+  public MaintenanceScheduler(PrimeLeagueShopPlugin plugin) {
+    this.plugin = plugin;
+    this.tasks = new CopyOnWriteArrayList<>();
+    this.running = new AtomicBoolean();
+  }
+
+  /**
+   * Registra uma limpeza periódica, executada fora da thread principal
+   *
+   * @param name          Nome usado nos logs
+   * @param cleanable     Limpeza; precisa ser segura fora da thread principal
+   * @param intervalTicks Intervalo entre execuções
+   */
+  public void register(String name, Cleanable cleanable, long intervalTicks) {
+    long intervalMillis = Math.max(CHECK_PERIOD_TICKS, intervalTicks) * MILLIS_PER_TICK;
+    // Espalha a primeira execução para que limpezas de mesmo intervalo não caiam juntas
+    long firstRun = System.currentTimeMillis() + intervalMillis
+        + tasks.size() * CHECK_PERIOD_TICKS * MILLIS_PER_TICK;
+    tasks.add(new Task(name, cleanable, intervalMillis, firstRun));
+  }
+
+  public void start() {
+    asyncTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+      @Override
+      public void run() {
+        runDue();
+      }
+    }, CHECK_PERIOD_TICKS, CHECK_PERIOD_TICKS);
+  }
+
+  public void shutdown() {
+    if (asyncTask != null) {
+      asyncTask.cancel();
+      asyncTask = null;
+    }
+  }
+
+  /**
+   * Roda as limpezas vencidas
+   */
+  private void runDue() {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long now = System.currentTimeMillis();
+      for (Task task : tasks) {
+        if (now >= task.nextRun) {
+          task.nextRun = now + task.intervalMillis;
+          run(task);
+        }
+      }
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private void run(Task task) {
+    try {
+      task.cleanable.cleanup();
+    } catch (Exception e) {
+      plugin.getLogger().log(Level.WARNING, "Erro na limpeza de " + task.name, e);
+    }
+  }
+}
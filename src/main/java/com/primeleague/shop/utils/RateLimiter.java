@@ -1,64 +1,148 @@
 package com.primeleague.shop.utils;
 
-import java.util.Map;
-import java.util.Collections;
-import java.util.HashMap;
+import com.primeleague.shop.models.ShopAction;
+import com.primeleague.shop.session.PlayerSession;
+import org.bukkit.configuration.ConfigurationSection;
 
-public class RateLimiter {
-  private final Map<String, TransactionCounter> counters;
-  private final int maxTransactionsPerMinute;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-  private static class TransactionCounter {
-    int count;
-    long lastReset;
+/**
+ * Limita a frequência de ações por jogador
+ *
+ * Usa GCRA, equivalente a um token bucket: cada jogador guarda, por ação,
+ * o instante teórico em que o balde estará cheio de novo. Uma ação é aceita
+ * se esse instante não estiver mais de "burst" intervalos no futuro. Não há
+ * janela fixa, então não existe rajada dobrada na virada do minuto.
+ *
+ * O estado é um long por ação, guardado por UUID fora da sessão, para que
+ * sair e voltar não devolva o balde cheio. Cada entrada expira depois de um
+ * reabastecimento completo, quando já equivale a um balde novo.
+ */
+public class RateLimiter implements Cleanable {
 
-    TransactionCounter() {
-      this.count = 0;
-      this.lastReset = System.currentTimeMillis();
-    }
+  private static final ShopAction[] ACTIONS = ShopAction.values();
+
+  // Bem acima do número de jogadores ativos em um reabastecimento
+  private static final int MAX_TRACKED_PLAYERS = 10000;
+
+  private final long[] intervals;
+  private final long[] tolerances;
+  private final CacheManager<UUID, long[]> states;
+
+  /**
+   * Cria o limitador a partir de settings.transaction.rate-limit
+   *
+   * Cada ação aceita per-minute e burst. Um número simples no lugar da
+   * seção (formato antigo) vale como per-minute para compra e venda.
+   *
+   * @param config Seção settings.transaction
+   */
+  public RateLimiter(ConfigurationSection config) {
+    this.intervals = new long[ACTIONS.length];
+    this.tolerances = new long[ACTIONS.length];
+
+    ConfigurationSection section = config != null ? config.getConfigurationSection("rate-limit") : null;
+    int legacyLimit = config != null && section == null ? config.getInt("rate-limit", 10) : 10;
 
-    void increment() {
-      long now = System.currentTimeMillis();
-      if (now - lastReset > 60000) { // 1 minuto
-        count = 1;
-        lastReset = now;
-      } else {
-        count++;
+    for (ShopAction action : ACTIONS) {
+      int perMinute = defaultPerMinute(action, legacyLimit);
+      int burst = defaultBurst(action);
+
+      ConfigurationSection actionSection = section != null
+          ? section.getConfigurationSection(action.getConfigKey()) : null;
+      if (actionSection != null) {
+        perMinute = actionSection.getInt("per-minute", perMinute);
+        burst = actionSection.getInt("burst", burst);
       }
-    }
 
-    boolean shouldAllow(int maxTransactions) {
-      long now = System.currentTimeMillis();
-      if (now - lastReset > 60000) {
-        count = 0;
-        lastReset = now;
-        return true;
+      if (perMinute <= 0) {
+        continue; // Sem limite para a ação
       }
-      return count < maxTransactions;
+
+      long interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+      intervals[action.ordinal()] = interval;
+      tolerances[action.ordinal()] = interval * (Math.max(1, burst) - 1);
+    }
+
+    // Após a última ação aceita, o balde mais lento está cheio depois de intervalo + tolerância
+    long refill = 0;
+    for (int i = 0; i < ACTIONS.length; i++) {
+      refill = Math.max(refill, intervals[i] + tolerances[i]);
     }
+    this.states = new CacheManager<>(MAX_TRACKED_PLAYERS, refill, TimeUnit.NANOSECONDS);
   }
 
-  public RateLimiter(int maxTransactionsPerMinute) {
-    this.counters = Collections.synchronizedMap(new HashMap<String, TransactionCounter>());
-    this.maxTransactionsPerMinute = maxTransactionsPerMinute;
+  private static int defaultPerMinute(ShopAction action, int legacyLimit) {
+    switch (action) {
+      case SELL_ALL:
+        return 4;
+      case GUI_CLICK:
+        return 600;
+      case COMMAND:
+        return 60;
+      default:
+        return legacyLimit;
+    }
   }
 
-  public boolean tryAcquire(String playerName) {
-    TransactionCounter counter = counters.computeIfAbsent(playerName, k -> new TransactionCounter());
-    synchronized (counter) {
-      if (counter.shouldAllow(maxTransactionsPerMinute)) {
-        counter.increment();
-        return true;
-      }
-      return false;
+  private static int defaultBurst(ShopAction action) {
+    switch (action) {
+      case SELL_ALL:
+        return 1;
+      case GUI_CLICK:
+        return 20;
+      case COMMAND:
+        return 10;
+      default:
+        return 5;
     }
   }
 
-  public void cleanup() {
-    long now = System.currentTimeMillis();
-    synchronized (counters) {
-      counters.entrySet().removeIf(entry -> now - entry.getValue().lastReset > 300000); // Remove após 5 minutos de
-                                                                                        // inatividade
+  /**
+   * Tenta registrar uma ação do jogador
+   *
+   * @param session Sessão do jogador
+   * @param action  Ação
+   * @return true se a ação está dentro do limite
+   */
+  public boolean tryAcquire(PlayerSession session, ShopAction action) {
+    return tryAcquire(session.getUniqueId(), action);
+  }
+
+  /**
+   * Tenta registrar uma ação do jogador
+   *
+   * Cada ação aceita grava uma entrada nova, o que renova a expiração.
+   */
+  public boolean tryAcquire(UUID uniqueId, ShopAction action) {
+    final int index = action.ordinal();
+    final long interval = intervals[index];
+    if (interval == 0) {
+      return true;
     }
+
+    final long now = System.nanoTime();
+    final boolean[] accepted = new boolean[1];
+    states.compute(uniqueId, (id, current) -> {
+      long tat = current != null ? current[index] : 0L;
+      long start = tat == 0 || tat - now < 0 ? now : tat;
+      if (start - now > tolerances[index]) {
+        return current;
+      }
+      long[] updated = current != null ? current.clone() : new long[ACTIONS.length];
+      updated[index] = start + interval;
+      accepted[0] = true;
+      return updated;
+    });
+    return accepted[0];
+  }
+
+  /**
+   * Descarta estados cujo balde já está cheio
+   */
+  @Override
+  public void cleanup() {
+    states.cleanup();
   }
 }
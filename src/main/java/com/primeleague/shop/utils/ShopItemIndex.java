@@ -0,0 +1,132 @@
+package com.primeleague.shop.utils;
+
+import com.primeleague.shop.models.ShopItem;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Índice imutável de itens da loja por material e data value
+ *
+ * A chave é um int (id do material << 8 | data) e a tabela usa endereçamento
+ * aberto, então cada consulta é uma busca por chave primitiva, sem criar
+ * strings nem objetos.
+ */
+public final class ShopItemIndex {
+
+  private static final int EMPTY = -1;
+
+  private final int[] keys;
+  private final ShopItem[] values;
+  private final int mask;
+  private final int size;
+
+  private ShopItemIndex(int[] keys, ShopItem[] values, int size) {
+    this.keys = keys;
+    this.values = values;
+    this.mask = keys.length - 1;
+    this.size = size;
+  }
+
+  /**
+   * Calcula a chave de um material/data
+   *
+   * @param materialId ID numérico do material
+   * @param data       Data value
+   * @return Chave compactada
+   */
+  public static int key(int materialId, byte data) {
+    return (materialId << 8) | (data & 0xFF);
+  }
+
+  /**
+   * Constrói o índice; se houver itens repetidos, vale o primeiro
+   *
+   * @param items Itens da loja, na ordem de cadastro
+   * @return Índice pronto para consulta
+   */
+  public static ShopItemIndex build(Collection<ShopItem> items) {
+    int capacity = 16;
+    // Mantém a ocupação abaixo de 50% para sondagens curtas
+    while (capacity < items.size() * 2) {
+      capacity <<= 1;
+    }
+
+    int[] keys = new int[capacity];
+    ShopItem[] values = new ShopItem[capacity];
+    Arrays.fill(keys, EMPTY);
+
+    int mask = capacity - 1;
+    int size = 0;
+    for (ShopItem item : items) {
+      int key = item.getIndexKey();
+      if (key < 0) {
+        continue; // Material inválido
+      }
+      int slot = mix(key) & mask;
+      while (keys[slot] != EMPTY && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      if (keys[slot] == EMPTY) {
+        keys[slot] = key;
+        values[slot] = item;
+        size++;
+      }
+    }
+
+    return new ShopItemIndex(keys, values, size);
+  }
+
+  /**
+   * Busca um item pela chave compactada
+   *
+   * @param key Chave gerada por {@link #key(int, byte)}
+   * @return Item encontrado ou null
+   */
+  public ShopItem get(int key) {
+    int slot = mix(key) & mask;
+    int current;
+    while ((current = keys[slot]) != EMPTY) {
+      if (current == key) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Busca um item pelo material e data value
+   */
+  public ShopItem get(Material material, byte data) {
+    return material == null ? null : get(key(material.getId(), data));
+  }
+
+  /**
+   * Busca o item da loja correspondente a um ItemStack
+   *
+   * Itens gastos não correspondem a nenhum item da loja, a mesma regra de
+   * {@link ShopItem#matches}.
+   */
+  public ShopItem get(ItemStack stack) {
+    if (stack == null || ShopItem.isWorn(stack)) {
+      return null;
+    }
+    // A durabilidade carrega o data value; evita criar o MaterialData
+    return get(key(stack.getTypeId(), (byte) stack.getDurability()));
+  }
+
+  /**
+   * Quantidade de chaves distintas no índice
+   */
+  public int size() {
+    return size;
+  }
+
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}